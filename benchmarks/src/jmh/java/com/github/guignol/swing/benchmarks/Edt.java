@@ -0,0 +1,33 @@
+package com.github.guignol.swing.benchmarks;
+
+import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * ヘッドレス環境でEDTを駆動するためのヘルパー
+ * <p>
+ * java.awt.headless=trueでもEventQueueとEDTは動くので、ベンチマークのスレッドからinvokeAndWaitで処理をまとめて流す。
+ * 1回のinvokeAndWaitで複数回の操作を行い、@OperationsPerInvocationで割ることで受け渡しのコストを薄める。
+ */
+final class Edt {
+
+    private Edt() {
+    }
+
+    static void run(Runnable runnable) {
+        try {
+            SwingUtilities.invokeAndWait(runnable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // subscribeOn(SwingScheduler)で積まれた購読処理を終わらせる
+    static void flush() {
+        run(() -> {
+        });
+    }
+}
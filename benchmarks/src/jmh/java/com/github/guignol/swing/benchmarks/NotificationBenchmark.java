@@ -0,0 +1,66 @@
+package com.github.guignol.swing.benchmarks;
+
+import com.github.guignol.swing.binding.Notification;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.subjects.PublishSubject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 1つのNotificationのストリームに多数のBinderが繋がっている時の、1通知あたりのコスト
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NotificationBenchmark {
+
+    public enum Key implements Notification.FromValue<Key, Integer> {
+        K0, K1, K2, K3, K4, K5, K6, K7, K8, K9,
+        K10, K11, K12, K13, K14, K15, K16, K17, K18, K19
+    }
+
+    @Param({"1", "10", "50"})
+    public int binders;
+
+    // getBinderでフィルターするか、Hubでキーごとに振り分けるか
+    @Param({"filter", "hub"})
+    public String mode;
+
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private PublishSubject<Notification<Key, Integer>> source;
+    private final List<Notification<Key, Integer>> notifications = new ArrayList<>();
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp(Blackhole blackhole) {
+        source = PublishSubject.create();
+        final Key[] keys = Key.values();
+        final Notification.Hub<Key, Integer> hub = Notification.hub(source, Key.class);
+        for (int i = 0; i < binders; i++) {
+            // Binderごとに2つのキーを購読する
+            final Key first = keys[i % keys.length];
+            final Key second = keys[(i + 7) % keys.length];
+            disposables.add(("hub".equals(mode) ? hub.getBinder(first, second) : Notification.getBinder(source, first, second))
+                    .toView(blackhole::consume));
+        }
+        notifications.clear();
+        for (int i = 0; i < keys.length; i++) {
+            notifications.add(keys[i].notify(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        disposables.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public void dispatch() {
+        for (Notification<Key, Integer> notification : notifications) {
+            source.onNext(notification);
+        }
+    }
+}
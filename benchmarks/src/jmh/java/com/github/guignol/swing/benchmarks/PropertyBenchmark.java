@@ -0,0 +1,134 @@
+package com.github.guignol.swing.benchmarks;
+
+import com.github.guignol.swing.binding.Property;
+import io.reactivex.disposables.CompositeDisposable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.util.concurrent.TimeUnit;
+
+// Propertyの各ソースで、Swingのイベント1回あたりにかかる時間と割り当て量。割り当て量は-prof gcのgc.alloc.rate.normで見る
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PropertyBenchmark {
+
+    private static final int OPERATIONS = 1000;
+
+    // 文書の大きさはテキストのベンチマークにだけ効くので、他のベンチマークを掛け合わせないよう分けておく
+    @State(Scope.Benchmark)
+    public static class DocumentState {
+
+        // onInputはDocument全体をコピーするので、大きさで差が出る
+        @Param({"100", "100000"})
+        public int documentLength;
+
+        private JTextArea textArea;
+
+        @Setup
+        public void setUp() {
+            Edt.run(() -> {
+                final StringBuilder text = new StringBuilder(documentLength);
+                for (int i = 0; i < documentLength; i++) {
+                    // 1行が長いとViewの再計算が支配的になるので、80文字で改行する
+                    text.append(i % 80 == 79 ? '\n' : (char) ('a' + i % 26));
+                }
+                textArea = new JTextArea(text.toString());
+            });
+        }
+    }
+
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private JList<String> list;
+    private JToggleButton button;
+
+    @Setup
+    public void setUp() {
+        Edt.run(() -> {
+            final String[] items = new String[10000];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = String.valueOf(i);
+            }
+            list = new JList<>(items);
+            button = new JToggleButton();
+        });
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        disposables.clear();
+        Edt.flush();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void onInput(DocumentState state, Blackhole blackhole) {
+        disposables.add(Property.onInput(state.textArea).subscribe(blackhole::consume));
+        Edt.flush();
+        Edt.run(() -> typeAndDelete(state.textArea.getDocument()));
+        disposables.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void onTextDelta(DocumentState state, Blackhole blackhole) {
+        disposables.add(Property.onTextDelta(state.textArea).subscribe(blackhole::consume));
+        Edt.flush();
+        Edt.run(() -> typeAndDelete(state.textArea.getDocument()));
+        disposables.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void onSelection(Blackhole blackhole) {
+        disposables.add(Property.onSelection(list).subscribe(blackhole::consume));
+        Edt.flush();
+        Edt.run(this::select);
+        disposables.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void onSelectionChange(Blackhole blackhole) {
+        disposables.add(Property.onSelectionChange(list).subscribe(blackhole::consume));
+        Edt.flush();
+        Edt.run(this::select);
+        disposables.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void onChangedButton(Blackhole blackhole) {
+        disposables.add(Property.onChanged(button, AbstractButton::isSelected).subscribe(blackhole::consume));
+        Edt.flush();
+        Edt.run(() -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                button.setSelected(!button.isSelected());
+            }
+        });
+        disposables.clear();
+    }
+
+    // 末尾に1文字入力して消すのを繰り返す。イベントは2回ずつ
+    private static void typeAndDelete(Document document) {
+        try {
+            for (int i = 0; i < OPERATIONS / 2; i++) {
+                final int end = document.getLength();
+                document.insertString(end, "x", null);
+                document.remove(end, 1);
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // shift+クリックでの範囲選択に相当する
+    private void select() {
+        for (int i = 0; i < OPERATIONS; i++) {
+            list.setSelectionInterval(i % 100, 5000 + i % 100);
+        }
+    }
+}
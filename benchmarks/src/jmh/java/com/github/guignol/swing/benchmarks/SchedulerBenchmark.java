@@ -0,0 +1,79 @@
+package com.github.guignol.swing.benchmarks;
+
+import com.github.guignol.swing.rx.CoalescingSwingScheduler;
+import com.github.guignol.swing.rx.SwingScheduler;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// EDTの内外からタスクを積んで、全て実行されるまでの1タスクあたりの時間
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SchedulerBenchmark {
+
+    private static final int TASKS = 10000;
+
+    @Param({"swing", "coalescing"})
+    public String scheduler;
+
+    private Scheduler.Worker worker;
+
+    // キャンセルしたタスクがWorkerに溜まっていくと後のイテレーションほど遅くなるので、イテレーションごとに作り直す
+    @Setup(Level.Iteration)
+    public void setUp() {
+        worker = ("swing".equals(scheduler) ? SwingScheduler.getInstance() : CoalescingSwingScheduler.getInstance())
+                .createWorker();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        worker.dispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void offEdt() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            worker.schedule(latch::countDown);
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void onEdt() {
+        final int[] count = {0};
+        Edt.run(() -> {
+            for (int i = 0; i < TASKS; i++) {
+                worker.schedule(() -> count[0]++);
+            }
+        });
+    }
+
+    // debounceのように、遅延タスクを積んではすぐにキャンセルする
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void delayedAndCancelled() {
+        for (int i = 0; i < TASKS; i++) {
+            final Disposable disposable = worker.schedule(() -> {
+            }, 300, TimeUnit.MILLISECONDS);
+            disposable.dispose();
+        }
+    }
+
+    // 遅延タスクが実際に実行されるまで。遅延は短くして、タイマーからEDTへの受け渡しのコストを見る
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void delayedAndFired() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            worker.schedule(latch::countDown, 1, TimeUnit.MILLISECONDS);
+        }
+        latch.await();
+    }
+}
@@ -13,6 +13,8 @@ import java.awt.event.MouseEvent;
 public class Bindable<T> {
 
     final Observable<T> source;
+    // BindingMetricsでの名前
+    String name;
 
     Bindable(Observable<T> source) {
         this.source = source;
@@ -35,14 +37,30 @@ public class Bindable<T> {
         return new BindableView<>(Property.onInput(textComponent));
     }
 
+    public static BindableView<TextDelta> delta(JTextComponent textComponent) {
+        return new BindableView<>(Property.onTextDelta(textComponent));
+    }
+
     public static BindableView<int[]> view(JList list) {
         return new BindableView<>(Property.onSelection(list));
     }
 
+    public static BindableView<Selection.Change> selection(JList list) {
+        return new BindableView<>(Property.onSelectionChange(list));
+    }
+
+    public static BindableView<Selection.Change> selection(JTable table) {
+        return new BindableView<>(Property.onSelectionChange(table));
+    }
+
     public static BindableView<EventStatus> view(JComponent component, Keys.KeyHolder keyHolder) {
         return view(new Keys.Registry(component).onFired(keyHolder));
     }
 
+    public static BindableView<ActionEvent> view(Keys.Keymap keymap, Keys.KeyHolder keyHolder) {
+        return view(keymap.onFired(keyHolder));
+    }
+
     public static BindableView<MouseEvent> click(Component component) {
         return new BindableView<>(Property.onClick(component));
     }
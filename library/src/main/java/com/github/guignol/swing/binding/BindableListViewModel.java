@@ -0,0 +1,64 @@
+package com.github.guignol.swing.binding;
+
+import com.github.guignol.swing.rx.EdtSlices;
+import com.github.guignol.swing.rx.SwingScheduler;
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.BiPredicate;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * リストを流すViewModelから、ListModel/TableModelを差分で更新する
+ * <p>
+ * 差分の計算はEDTの外で行い、EDTでは挿入・削除・変更の範囲ごとにイベントを発火するだけにする。
+ * 大きな差分はEdtSlicesで時間を区切って適用する。モデルはこのBindableListViewModelだけが更新すること。
+ */
+public class BindableListViewModel<T> extends BindableViewModel<List<T>> {
+
+    private final BiPredicate<? super T, ? super T> sameItem;
+    private final BiPredicate<? super T, ? super T> sameContent;
+
+    public BindableListViewModel(Observable<List<T>> source) {
+        this(source, Objects::equals, Objects::equals);
+    }
+
+    /**
+     * @param sameItem    同じ要素かどうか(IDの比較など)
+     * @param sameContent 同じ要素の内容が変わっていないかどうか
+     */
+    public BindableListViewModel(Observable<List<T>> source,
+                                 BiPredicate<? super T, ? super T> sameItem,
+                                 BiPredicate<? super T, ? super T> sameContent) {
+        // 後から変更されても影響を受けないように、受け取った時点でコピーする
+        super(source.map(ListPatch::copyOf));
+        this.sameItem = sameItem;
+        this.sameContent = sameContent;
+    }
+
+    public Disposable toView(DiffListModel<T> listModel) {
+        return toView(listModel.target);
+    }
+
+    public Disposable toView(DiffTableModel<T> tableModel) {
+        return toView(tableModel.target);
+    }
+
+    /**
+     * EDTでモデルの現在の内容を写し、EDTの外で差分を求め、EDTで時間を区切りながら適用する。
+     * 適用中に新しいリストが来たら打ち切り、途中まで適用された内容から差分を求め直す
+     */
+    private Disposable toView(ListPatch.Target<T> target) {
+        return subscribe(source.switchMap(next -> Observable.fromCallable(() -> ListPatch.copyOf(target.items))
+                        .subscribeOn(SwingScheduler.getInstance())
+                        .observeOn(Schedulers.computation())
+                        .map(before -> ListPatch.between(before, next, sameItem, sameContent))
+                        .filter(patch -> !patch.isEmpty())
+                        .flatMapCompletable(patch -> EdtSlices.run(patch.steps(target)))
+                        .toObservable()),
+                ignored -> {
+                });
+    }
+}
@@ -1,26 +1,78 @@
 package com.github.guignol.swing.binding;
 
+import com.github.guignol.swing.metrics.BindingMetrics;
+import com.github.guignol.swing.rx.Backpressure;
+import com.github.guignol.swing.rx.BackgroundScheduler;
+import com.github.guignol.swing.rx.Conflation;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+import java.awt.*;
 
 public class BindableView<T> extends Bindable<T> implements Disposable {
 
-    private final CompositeDisposable compositeDisposable = new CompositeDisposable();
+    private final CompositeDisposable compositeDisposable;
 
     BindableView(Observable<T> source) {
+        this(source, new CompositeDisposable());
+    }
+
+    private BindableView(Observable<T> source, CompositeDisposable compositeDisposable) {
         super(source);
+        this.compositeDisposable = compositeDisposable;
+    }
+
+    // 1フレームに1回、最新の値だけ流す。購読は元のBindableViewと一緒に破棄される
+    public BindableView<T> perFrame() {
+        return new BindableView<>(source.compose(Conflation.perFrame()), compositeDisposable);
+    }
+
+    // BindingMetricsで計測する時の名前
+    public BindableView<T> named(String name) {
+        this.name = name;
+        return this;
+    }
+
+    // componentが画面から外されたら、このBindableViewの購読を全て破棄する
+    public BindableView<T> disposeWith(Component component) {
+        // 先に明示的にdisposeされたら、compositeDisposableからcomponentの監視もやめる
+        compositeDisposable.add(Lifecycle.disposeOnRemoved(component, this));
+        return this;
     }
 
     public Disposable toViewModel(Runnable runnable) {
-        final Disposable disposable = source.subscribe(t -> runnable.run());
+        return toViewModel(t -> runnable.run());
+    }
+
+    public Disposable toViewModel(Consumer<T> onNext) {
+        final Disposable disposable = source.subscribe(BindingMetrics.instrument(name, onNext));
         compositeDisposable.add(disposable);
         return disposable;
     }
 
-    public Disposable toViewModel(Consumer<T> onNext) {
-        final Disposable disposable = source.subscribe(onNext);
+    // schedulerで処理する。処理が追いつかない間のイベントはbackpressureに従って捨てるか溜める
+    public Disposable toViewModel(Backpressure backpressure, Scheduler scheduler, Consumer<T> onNext) {
+        final Disposable disposable = backpressure.observeOn(source, scheduler)
+                .subscribe(BindingMetrics.instrument(name, onNext));
+        compositeDisposable.add(disposable);
+        return disposable;
+    }
+
+    /**
+     * computeをEDTの外で実行し、結果をEDTでonResultに渡す。
+     * 計算中に新しいイベントが来たら、古い計算の結果は捨てる。computeはnullを返さないこと
+     */
+    public <R> Disposable toViewModelAsync(Function<T, R> compute, Consumer<R> onResult) {
+        return toViewModelAsync(BackgroundScheduler.getInstance(), compute, onResult);
+    }
+
+    public <R> Disposable toViewModelAsync(Scheduler scheduler, Function<T, R> compute, Consumer<R> onResult) {
+        final Disposable disposable = source.compose(BackgroundScheduler.computeLatest(scheduler, compute))
+                .subscribe(BindingMetrics.instrument(name, onResult));
         compositeDisposable.add(disposable);
         return disposable;
     }
@@ -1,9 +1,22 @@
 package com.github.guignol.swing.binding;
 
+import com.github.guignol.swing.metrics.BindingMetrics;
+import com.github.guignol.swing.rx.Backpressure;
+import com.github.guignol.swing.rx.BackgroundScheduler;
+import com.github.guignol.swing.rx.EdtSlices;
+import com.github.guignol.swing.rx.SwingScheduler;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.BiConsumer;
 import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+import java.awt.*;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
 
 public class BindableViewModel<T> extends Bindable<T> implements Disposable {
 
@@ -13,8 +26,72 @@ public class BindableViewModel<T> extends Bindable<T> implements Disposable {
         super(source);
     }
 
+    // BindingMetricsで計測する時の名前
+    public BindableViewModel<T> named(String name) {
+        this.name = name;
+        return this;
+    }
+
     public Disposable toView(Consumer<T> onNext) {
-        final Disposable disposable = source.subscribe(onNext);
+        return subscribe(source, onNext);
+    }
+
+    /**
+     * viewを弱参照で持ち、viewがGCされたら購読を破棄する。
+     * onNextからviewを強参照しないよう、引数で渡されたviewを使うこと
+     */
+    public <V> Disposable toViewWeakly(V view, BiConsumer<? super V, ? super T> onNext) {
+        final WeakReference<V> reference = new WeakReference<>(view);
+        final Disposable disposable = subscribe(source, value -> {
+            final V target = reference.get();
+            if (target != null) {
+                onNext.accept(target, value);
+            }
+        });
+        final Disposable cleanup = Lifecycle.disposeOnCollected(view, disposable);
+        // このBindableViewModelごとdisposeされた時も、viewの監視をやめる
+        compositeDisposable.add(cleanup);
+        return cleanup;
+    }
+
+    // componentが画面から外されたら、このBindableViewModelの購読を全て破棄する
+    public BindableViewModel<T> disposeWith(Component component) {
+        // 先に明示的にdisposeされたら、compositeDisposableからcomponentの監視もやめる
+        compositeDisposable.add(Lifecycle.disposeOnRemoved(component, this));
+        return this;
+    }
+
+    // EDTで処理する。描画が追いつかない間の値はbackpressureに従って捨てるか溜める
+    public Disposable toView(Backpressure backpressure, Consumer<T> onNext) {
+        return subscribe(backpressure.observeOn(source, SwingScheduler.getInstance()), onNext);
+    }
+
+    /**
+     * computeをEDTの外で実行し、結果をEDTでonNextに渡す。
+     * 計算中に新しい値が来たら、古い計算の結果は捨てる。computeはnullを返さないこと
+     */
+    public <R> Disposable toViewAsync(Function<T, R> compute, Consumer<R> onNext) {
+        return toViewAsync(BackgroundScheduler.getInstance(), compute, onNext);
+    }
+
+    public <R> Disposable toViewAsync(Scheduler scheduler, Function<T, R> compute, Consumer<R> onNext) {
+        return subscribe(source.compose(BackgroundScheduler.computeLatest(scheduler, compute)), onNext);
+    }
+
+    // 大きな更新を手順に分けて、EDTを長く止めないように少しずつ適用する。新しい値が来たら適用中のものは打ち切る
+    public Disposable toViewInSlices(Function<T, Iterator<? extends Runnable>> steps) {
+        return subscribe(source.switchMap(value -> EdtSlices.run(steps.apply(value)).toObservable()), ignored -> {
+        });
+    }
+
+    <R> Disposable subscribe(Observable<R> observable, Consumer<R> onNext) {
+        final Disposable disposable = observable.subscribe(BindingMetrics.instrument(name, onNext));
+        compositeDisposable.add(disposable);
+        return disposable;
+    }
+
+    <R> Disposable subscribe(Flowable<R> flowable, Consumer<R> onNext) {
+        final Disposable disposable = flowable.subscribe(BindingMetrics.instrument(name, onNext));
         compositeDisposable.add(disposable);
         return disposable;
     }
@@ -0,0 +1,44 @@
+package com.github.guignol.swing.binding;
+
+// JTableのセルの位置。表の外ならNONE
+public class CellPosition {
+
+    public static final CellPosition NONE = new CellPosition(-1, -1);
+
+    public final int row;
+    public final int column;
+
+    private CellPosition(int row, int column) {
+        this.row = row;
+        this.column = column;
+    }
+
+    static CellPosition of(int row, int column) {
+        if (row < 0 || column < 0) {
+            return NONE;
+        }
+        return new CellPosition(row, column);
+    }
+
+    public boolean isNone() {
+        return this == NONE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final CellPosition that = (CellPosition) o;
+        return row == that.row && column == that.column;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * row + column;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + row + ", " + column + ")";
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.guignol.swing.binding;
+
+import javax.swing.*;
+
+// BindableListViewModelから差分だけを受け取って更新するListModel
+public class DiffListModel<T> extends AbstractListModel<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    final ListPatch.Target<T> target = new ListPatch.Target<T>() {
+        @Override
+        void fire(ListDiff.Op op) {
+            final int last = op.index + op.count - 1;
+            switch (op.type) {
+                case INSERT:
+                    fireIntervalAdded(DiffListModel.this, op.index, last);
+                    break;
+                case REMOVE:
+                    fireIntervalRemoved(DiffListModel.this, op.index, last);
+                    break;
+                case CHANGE:
+                    fireContentsChanged(DiffListModel.this, op.index, last);
+                    break;
+            }
+        }
+    };
+
+    @Override
+    public int getSize() {
+        return target.items.size();
+    }
+
+    @Override
+    public T getElementAt(int index) {
+        return target.items.get(index);
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Function;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+// BindableListViewModelから差分だけを受け取って更新するTableModel。1要素が1行
+public class DiffTableModel<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    public static class Column<T> {
+        @NonNull
+        public final String name;
+        @NonNull
+        public final Class<?> type;
+        @NonNull
+        public final Function<? super T, ?> getter;
+
+        public Column(@NonNull String name, @NonNull Class<?> type, @NonNull Function<? super T, ?> getter) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+        }
+    }
+
+    final ListPatch.Target<T> target = new ListPatch.Target<T>() {
+        @Override
+        void fire(ListDiff.Op op) {
+            final int last = op.index + op.count - 1;
+            switch (op.type) {
+                case INSERT:
+                    fireTableRowsInserted(op.index, last);
+                    break;
+                case REMOVE:
+                    fireTableRowsDeleted(op.index, last);
+                    break;
+                case CHANGE:
+                    fireTableRowsUpdated(op.index, last);
+                    break;
+            }
+        }
+    };
+    private final List<Column<T>> columns = new ArrayList<>();
+
+    @SafeVarargs
+    public DiffTableModel(Column<T>... columns) {
+        // 配列を他のメソッドに渡さず、要素だけを写す
+        for (Column<T> column : columns) {
+            this.columns.add(column);
+        }
+    }
+
+    public T getRow(int rowIndex) {
+        return target.items.get(rowIndex);
+    }
+
+    @Override
+    public int getRowCount() {
+        return target.items.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).name;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return columns.get(columnIndex).type;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        try {
+            return columns.get(columnIndex).getter.apply(target.items.get(rowIndex));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
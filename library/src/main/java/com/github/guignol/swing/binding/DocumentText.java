@@ -0,0 +1,72 @@
+package com.github.guignol.swing.binding;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Segment;
+
+/**
+ * Documentの内容をコピーせずに読むCharSequence
+ * <p>
+ * SegmentのpartialReturnでDocument内部の配列を直接参照するので、Documentが変更されると中身が変わる。
+ * Property.onDocumentTextから流れてきた時点の内容として、EDT上でその場で読むこと。
+ * 保持したい場合はtoString()でコピーする。
+ */
+public class DocumentText implements CharSequence {
+
+    private final Document document;
+    private final Segment segment = new Segment();
+    // segmentが指しているDocument上の先頭位置。-1なら無効
+    private int segmentStart = -1;
+
+    DocumentText(Document document) {
+        this.document = document;
+        this.segment.setPartialReturn(true);
+    }
+
+    void invalidate() {
+        segmentStart = -1;
+    }
+
+    @Override
+    public int length() {
+        return document.getLength();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (segmentStart < 0 || index < segmentStart || segmentStart + segment.count <= index) {
+            final int length = document.getLength();
+            if (index < 0 || length <= index) {
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+            }
+            try {
+                document.getText(index, length - index, segment);
+            } catch (BadLocationException e) {
+                throw new IndexOutOfBoundsException(e.getMessage());
+            }
+            segmentStart = index;
+        }
+        return segment.array[segment.offset + index - segmentStart];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end < start || document.getLength() < end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end);
+        }
+        try {
+            return document.getText(start, end - start);
+        } catch (BadLocationException e) {
+            throw new IndexOutOfBoundsException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return document.getText(0, document.getLength());
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,12 +3,15 @@ package com.github.guignol.swing.binding;
 import com.github.guignol.swing.rx.EventStatus;
 import io.reactivex.Observable;
 import io.reactivex.annotations.NonNull;
+import io.reactivex.subjects.PublishSubject;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
+import java.util.HashMap;
+import java.util.Map;
 
 public class Keys {
 
@@ -46,6 +49,101 @@ public class Keys {
         }
     }
 
+    /**
+     * 同じ種類のコンポーネントで共有するキー割り当て
+     * <p>
+     * Registryはコンポーネントごとに自身のInputMap/ActionMapへ書き込み、Actionとsubjectも毎回作る。
+     * Keymapは種類(クラス)ごとに1つの親InputMap/ActionMapを作って差し込むだけなので、
+     * リストのセルやテーブルのエディタが何千あっても、割り当ての数は種類の数にしか比例しない。
+     * どのコンポーネントで押されたかは、ActionEvent.getSource()で分かる。EDTから使うこと。
+     */
+    public static class Keymap {
+
+        public enum Scope {
+            FOCUSED(JComponent.WHEN_FOCUSED),
+            ANCESTOR_OF_FOCUSED(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT),
+            // ComponentInputMapは共有できないので、ウィンドウのルートなどに1回だけ登録する
+            IN_FOCUSED_WINDOW(JComponent.WHEN_IN_FOCUSED_WINDOW);
+
+            final int condition;
+
+            Scope(int condition) {
+                this.condition = condition;
+            }
+        }
+
+        private final KeyHolder[] keyHolders;
+        // KeyHolderごとに1つ
+        private final Map<String, PublishSubject<ActionEvent>> subjects = new HashMap<>();
+        private final Map<String, Action> actions = new HashMap<>();
+        // 種類と範囲ごとの共有の親
+        private final Map<Class<?>, InputMap[]> inputMaps = new HashMap<>();
+        private final Map<Class<?>, ActionMap> actionMaps = new HashMap<>();
+
+        public Keymap(@NonNull KeyHolder... keyHolders) {
+            this.keyHolders = keyHolders.clone();
+            for (KeyHolder keyHolder : keyHolders) {
+                final PublishSubject<ActionEvent> subject = PublishSubject.create();
+                subjects.put(keyHolder.name, subject);
+                actions.put(keyHolder.name, new AbstractAction() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        subject.onNext(e);
+                    }
+                });
+            }
+        }
+
+        public void install(JComponent component) {
+            install(component, Scope.FOCUSED);
+        }
+
+        public void install(JComponent component, Scope scope) {
+            final InputMap inputMap = component.getInputMap(scope.condition);
+            if (scope == Scope.IN_FOCUSED_WINDOW) {
+                for (KeyHolder keyHolder : keyHolders) {
+                    inputMap.put(keyHolder.keyStroke, keyHolder.name);
+                }
+            } else {
+                final InputMap[] shared = inputMaps.computeIfAbsent(component.getClass(), key -> new InputMap[Scope.values().length]);
+                if (shared[scope.ordinal()] == null) {
+                    final InputMap map = new InputMap();
+                    for (KeyHolder keyHolder : keyHolders) {
+                        map.put(keyHolder.keyStroke, keyHolder.name);
+                    }
+                    // Look&Feelの割り当てはその後ろに残す
+                    map.setParent(inputMap.getParent());
+                    shared[scope.ordinal()] = map;
+                }
+                if (inputMap.getParent() != shared[scope.ordinal()]) {
+                    inputMap.setParent(shared[scope.ordinal()]);
+                }
+            }
+
+            final ActionMap actionMap = component.getActionMap();
+            ActionMap sharedActions = actionMaps.get(component.getClass());
+            if (sharedActions == null) {
+                sharedActions = new ActionMap();
+                for (Map.Entry<String, Action> entry : actions.entrySet()) {
+                    sharedActions.put(entry.getKey(), entry.getValue());
+                }
+                sharedActions.setParent(actionMap.getParent());
+                actionMaps.put(component.getClass(), sharedActions);
+            }
+            if (actionMap.getParent() != sharedActions) {
+                actionMap.setParent(sharedActions);
+            }
+        }
+
+        public Observable<ActionEvent> onFired(KeyHolder keyHolder) {
+            final PublishSubject<ActionEvent> subject = subjects.get(keyHolder.name);
+            if (subject == null) {
+                throw new IllegalArgumentException(keyHolder.name + " is not in this keymap.");
+            }
+            return subject.hide();
+        }
+    }
+
     public static class KeyHolder {
         @NonNull
         public final String name;
@@ -0,0 +1,123 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.annotations.NonNull;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.concurrent.Callable;
+
+/**
+ * 最初に表示されるまでViewとViewModelを作らない、中身が空のコンポーネント
+ * <p>
+ * タブやCardLayoutの裏にある画面は起動時に作らずに済む。
+ * disposeOnHiddenなら非表示になった時に中身を捨て、次に表示された時に作り直す。
+ */
+public class LazyView extends JPanel implements Disposable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 表示する中身と、捨てる時に一緒にdisposeするもの(View、ViewModelなど)
+     */
+    public static class Content {
+        @NonNull
+        final Component component;
+        @NonNull
+        final Object[] owners;
+
+        public Content(@NonNull Component component, @NonNull Object... owners) {
+            this.component = component;
+            this.owners = owners;
+        }
+
+        void dispose() {
+            for (Object owner : owners) {
+                if (owner instanceof Disposable) {
+                    ((Disposable) owner).dispose();
+                }
+            }
+        }
+    }
+
+    private final Callable<Content> factory;
+    private final boolean disposeOnHidden;
+    private final CompositeDisposable compositeDisposable = new CompositeDisposable();
+    @Nullable
+    private Content content;
+
+    private LazyView(Callable<Content> factory, boolean disposeOnHidden) {
+        super(new BorderLayout());
+        this.factory = factory;
+        this.disposeOnHidden = disposeOnHidden;
+    }
+
+    public static LazyView create(@NonNull Callable<Content> factory, boolean disposeOnHidden) {
+        final LazyView lazyView = new LazyView(factory, disposeOnHidden);
+        lazyView.compositeDisposable.add(Property.onEvent(lazyView, Property.Event.SHOWN, Property.Event.HIDDEN)
+                .subscribe(event -> {
+                    if (event == Property.Event.SHOWN) {
+                        lazyView.materialize();
+                    } else if (lazyView.disposeOnHidden) {
+                        lazyView.release();
+                    }
+                }));
+        // setVisibleされないまま表示される場合はSHOWNが来ないので、最初の表示だけ拾う
+        final HierarchyListener hierarchyListener = new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && lazyView.isShowing()) {
+                    lazyView.removeHierarchyListener(this);
+                    lazyView.materialize();
+                }
+            }
+        };
+        lazyView.addHierarchyListener(hierarchyListener);
+        lazyView.compositeDisposable.add(Disposables.fromAction(() -> lazyView.removeHierarchyListener(hierarchyListener)));
+        return lazyView;
+    }
+
+    public boolean isMaterialized() {
+        return content != null;
+    }
+
+    private void materialize() {
+        if (content != null || isDisposed()) {
+            return;
+        }
+        try {
+            content = factory.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        add(content.component, BorderLayout.CENTER);
+        revalidate();
+        repaint();
+    }
+
+    private void release() {
+        if (content == null) {
+            return;
+        }
+        final Content released = content;
+        content = null;
+        remove(released.component);
+        released.dispose();
+    }
+
+    @Override
+    public void dispose() {
+        compositeDisposable.dispose();
+        release();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return compositeDisposable.isDisposed();
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * disposeし忘れた購読を、画面やオブジェクトの寿命に合わせて自動でdisposeする
+ * <p>
+ * 長く生きるModelのObservableに繋いだままだと、閉じた画面のコンポーネントとViewModelが全て残り続けるため。
+ */
+public class Lifecycle {
+
+    private static final String NAME = "SwingBinding-Cleaner";
+
+    // GCされたら購読を破棄する参照。参照自体が回収されないように持っておく
+    private static final Set<Cleanup> CLEANUPS = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+    private static volatile boolean cleanerStarted;
+
+    private Lifecycle() {
+    }
+
+    /**
+     * componentが表示可能な状態から外れたら(親から外された、ウィンドウがdisposeされた)disposableを破棄する
+     * <p>
+     * 外したコンポーネントを後で付け直す場合には使わないこと。付け直しても購読は戻らない。
+     * 返したDisposableをdisposeすると、componentの監視もやめてdisposableを破棄する
+     */
+    public static Disposable disposeOnRemoved(Component component, Disposable disposable) {
+        final Watcher watcher = new Watcher(component, disposable);
+        component.addHierarchyListener(watcher);
+        return watcher;
+    }
+
+    /**
+     * ownerがGCされたらdisposableを破棄する
+     * <p>
+     * disposableの購読からownerを強参照していると回収されないので、
+     * ownerはBindableViewModel.toViewWeaklyのように弱参照で渡すこと。
+     * 返したDisposableをdisposeすると、ownerの監視もやめてdisposableを破棄する
+     */
+    public static Disposable disposeOnCollected(Object owner, Disposable disposable) {
+        startCleaner();
+        final Cleanup cleanup = new Cleanup(owner, disposable);
+        CLEANUPS.add(cleanup);
+        return cleanup;
+    }
+
+    private static void startCleaner() {
+        if (cleanerStarted) {
+            return;
+        }
+        synchronized (Lifecycle.class) {
+            if (cleanerStarted) {
+                return;
+            }
+            final Thread cleaner = new Thread(Lifecycle::clean, NAME);
+            cleaner.setDaemon(true);
+            cleaner.start();
+            cleanerStarted = true;
+        }
+    }
+
+    private static void clean() {
+        while (true) {
+            final Reference<?> reference;
+            try {
+                reference = QUEUE.remove();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                ((Cleanup) reference).dispose();
+            } catch (Throwable e) {
+                RxJavaPlugins.onError(e);
+            }
+        }
+    }
+
+    private static class Watcher implements HierarchyListener, Disposable {
+        private final Component component;
+        private final Disposable disposable;
+        // 作ってから画面に付けるまでの間は、表示可能でないのが普通なので無視する
+        private boolean displayed;
+
+        Watcher(Component component, Disposable disposable) {
+            this.component = component;
+            this.disposable = disposable;
+            this.displayed = component.isDisplayable();
+        }
+
+        @Override
+        public void hierarchyChanged(HierarchyEvent e) {
+            if (disposable.isDisposed()) {
+                component.removeHierarchyListener(this);
+                return;
+            }
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) == 0) {
+                return;
+            }
+            if (component.isDisplayable()) {
+                displayed = true;
+            } else if (displayed) {
+                dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            component.removeHierarchyListener(this);
+            disposable.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposable.isDisposed();
+        }
+    }
+
+    private static class Cleanup extends WeakReference<Object> implements Disposable {
+        private final Disposable disposable;
+
+        Cleanup(Object owner, Disposable disposable) {
+            super(owner, QUEUE);
+            this.disposable = disposable;
+        }
+
+        @Override
+        public void dispose() {
+            CLEANUPS.remove(this);
+            // 明示的にdisposeされた場合、キューに積まれないようにする
+            clear();
+            disposable.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposable.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.BiPredicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 2つのリストの差分をListModel/TableModelのイベント単位で求める
+ * <p>
+ * Myersの差分アルゴリズムで最小の挿入・削除を求め、同じ位置の削除と挿入は変更にまとめる。
+ * 先頭と末尾の一致部分は先に取り除くので、追記や末尾の削除だけならO(N)で済む。
+ * 差分が大きすぎる場合は、全体の置き換えとして扱う。
+ * <p>
+ * An O(ND) Difference Algorithm and Its Variations
+ * http://www.xmailserver.org/diff2.pdf
+ */
+public class ListDiff {
+
+    // これより編集距離が大きければ全体を置き換える。履歴のメモリがD^2に比例するため
+    private static final int MAX_EDIT_DISTANCE = 1024;
+
+    public enum Type {
+        INSERT,
+        REMOVE,
+        CHANGE
+    }
+
+    /**
+     * 先頭から順に適用する操作。indexは直前までの操作を適用した後のリスト上の位置。
+     * INSERTとCHANGEの要素は、変更後のリストのsourceIndexからcount個
+     */
+    public static class Op {
+        @NonNull
+        public final Type type;
+        public final int index;
+        public final int count;
+        public final int sourceIndex;
+
+        Op(@NonNull Type type, int index, int count, int sourceIndex) {
+            this.type = type;
+            this.index = index;
+            this.count = count;
+            this.sourceIndex = sourceIndex;
+        }
+
+        @Override
+        public String toString() {
+            return type + "(" + index + ", " + count + (type == Type.REMOVE ? "" : ", from " + sourceIndex) + ")";
+        }
+    }
+
+    private ListDiff() {
+    }
+
+    /**
+     * @param sameItem    同じ要素かどうか。一致した要素はそのまま残る
+     * @param sameContent 同じ要素の内容が変わっていないかどうか。変わっていればCHANGEになる
+     */
+    public static <T> List<Op> compute(@NonNull List<? extends T> before,
+                                       @NonNull List<? extends T> after,
+                                       @NonNull BiPredicate<? super T, ? super T> sameItem,
+                                       @NonNull BiPredicate<? super T, ? super T> sameContent) throws Exception {
+        final int n = before.size();
+        final int m = after.size();
+        int prefix = 0;
+        while (prefix < n && prefix < m && sameItem.test(before.get(prefix), after.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < n - prefix && suffix < m - prefix
+                && sameItem.test(before.get(n - 1 - suffix), after.get(m - 1 - suffix))) {
+            suffix++;
+        }
+        final List<? extends T> a = before.subList(prefix, n - suffix);
+        final List<? extends T> b = after.subList(prefix, m - suffix);
+        final int[] edits = editScript(a, b, sameItem);
+
+        final Ops ops = new Ops();
+        if (edits == null) {
+            // 差分が大きすぎるので全体を置き換える
+            final int common = Math.min(n, m);
+            ops.add(Type.CHANGE, 0, common, 0);
+            if (common < n) {
+                ops.add(Type.REMOVE, common, n - common, -1);
+            } else if (common < m) {
+                ops.add(Type.INSERT, common, m - common, common);
+            }
+            return ops.build();
+        }
+
+        // 一致した要素を辿りながら内容の変更も拾う
+        int x = 0;
+        int y = 0;
+        int shift = 0;
+        for (int i = 0; i <= edits.length; i += 3) {
+            final int editX = i < edits.length ? edits[i + 1] + prefix : n;
+            while (x < editX) {
+                if (!sameContent.test(before.get(x), after.get(y))) {
+                    ops.add(Type.CHANGE, x + shift, 1, y);
+                }
+                x++;
+                y++;
+            }
+            if (i == edits.length) {
+                break;
+            }
+            if (edits[i] == DELETE) {
+                ops.add(Type.REMOVE, x + shift, 1, -1);
+                shift--;
+                x++;
+            } else {
+                ops.add(Type.INSERT, x + shift, 1, y);
+                shift++;
+                y++;
+            }
+        }
+        return ops.build();
+    }
+
+    private static final int DELETE = 0;
+    private static final int INSERT = 1;
+
+    // [type, x, y]の並び。編集距離が上限を超えたらnull
+    private static <T> int[] editScript(List<? extends T> a,
+                                        List<? extends T> b,
+                                        BiPredicate<? super T, ? super T> sameItem) throws Exception {
+        final int n = a.size();
+        final int m = b.size();
+        if (n == 0 && m == 0) {
+            return new int[0];
+        }
+        final int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        final int offset = max + 1;
+        final int[] v = new int[2 * max + 3];
+        final List<int[]> trace = new ArrayList<>();
+        int distance = -1;
+        search:
+        for (int d = 0; d <= max; d++) {
+            // d手目の前のVを、[-d, d]の範囲だけ残す
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && sameItem.test(a.get(x), b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (n <= x && m <= y) {
+                    distance = d;
+                    break search;
+                }
+            }
+        }
+        if (distance < 0) {
+            return null;
+        }
+
+        final int[] edits = new int[distance * 3];
+        int x = n;
+        int y = m;
+        for (int d = distance; 0 < d; d--) {
+            final int[] previous = trace.get(d);
+            final int k = x - y;
+            // previousは[-d, d]なので、kの位置はk + d
+            final int previousK;
+            if (k == -d || (k != d && previous[k - 1 + d] < previous[k + 1 + d])) {
+                previousK = k + 1;
+            } else {
+                previousK = k - 1;
+            }
+            final int previousX = previous[previousK + d];
+            final int previousY = previousX - previousK;
+            final int e = (d - 1) * 3;
+            // k+1から来たならyだけ進んだので挿入、k-1から来たならxだけ進んだので削除
+            edits[e] = previousK == k + 1 ? INSERT : DELETE;
+            edits[e + 1] = previousX;
+            edits[e + 2] = previousY;
+            x = previousX;
+            y = previousY;
+        }
+        return edits;
+    }
+
+    // 隣接する同じ種類の操作をまとめ、同じ位置の削除と挿入を変更にする
+    private static class Ops {
+        private final List<Op> ops = new ArrayList<>();
+        private Type type;
+        private int index;
+        private int count;
+        private int sourceIndex;
+
+        void add(Type type, int index, int count, int sourceIndex) {
+            if (this.type == type && count > 0) {
+                final boolean continued;
+                switch (type) {
+                    case REMOVE:
+                        continued = this.index == index;
+                        break;
+                    default:
+                        continued = this.index + this.count == index && this.sourceIndex + this.count == sourceIndex;
+                        break;
+                }
+                if (continued) {
+                    this.count += count;
+                    return;
+                }
+            }
+            flush();
+            this.type = type;
+            this.index = index;
+            this.count = count;
+            this.sourceIndex = sourceIndex;
+        }
+
+        private void flush() {
+            if (type == null || count == 0) {
+                return;
+            }
+            final Op last = ops.isEmpty() ? null : ops.get(ops.size() - 1);
+            if (type == Type.INSERT && last != null && last.type == Type.REMOVE && last.index == index) {
+                ops.remove(ops.size() - 1);
+                final int changed = Math.min(last.count, count);
+                ops.add(new Op(Type.CHANGE, index, changed, sourceIndex));
+                if (changed < last.count) {
+                    ops.add(new Op(Type.REMOVE, index + changed, last.count - changed, -1));
+                } else if (changed < count) {
+                    ops.add(new Op(Type.INSERT, index + changed, count - changed, sourceIndex + changed));
+                }
+            } else {
+                ops.add(new Op(type, index, count, sourceIndex));
+            }
+        }
+
+        List<Op> build() {
+            flush();
+            type = null;
+            return ops.isEmpty() ? Collections.emptyList() : ops;
+        }
+    }
+}
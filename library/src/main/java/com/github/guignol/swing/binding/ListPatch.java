@@ -0,0 +1,101 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.BiPredicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// 変更後のリストと、変更前のリストをそこに近づける操作の組
+public class ListPatch<T> {
+
+    static final int CHUNK_SIZE = 1024;
+
+    @NonNull
+    public final List<T> after;
+    @NonNull
+    public final List<ListDiff.Op> ops;
+
+    ListPatch(@NonNull List<T> after, @NonNull List<ListDiff.Op> ops) {
+        this.after = after;
+        this.ops = ops;
+    }
+
+    static <T> ListPatch<T> between(List<T> before,
+                                    List<T> after,
+                                    BiPredicate<? super T, ? super T> sameItem,
+                                    BiPredicate<? super T, ? super T> sameContent) throws Exception {
+        return new ListPatch<>(after, ListDiff.compute(before, after, sameItem, sameContent));
+    }
+
+    public boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    /**
+     * ListModel/TableModelが持つリストに適用する手順。
+     * 大きな操作はCHUNK_SIZE件ずつに分けるので、1手順の時間はリストの大きさによらない
+     */
+    Iterator<Runnable> steps(Target<T> target) {
+        return new Iterator<Runnable>() {
+            private int opIndex = 0;
+            // 現在の操作のうち適用済みの件数
+            private int done = 0;
+
+            @Override
+            public boolean hasNext() {
+                return opIndex < ops.size();
+            }
+
+            @Override
+            public Runnable next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final ListDiff.Op op = ops.get(opIndex);
+                final int count = Math.min(CHUNK_SIZE, op.count - done);
+                final ListDiff.Op chunk = op.type == ListDiff.Type.REMOVE
+                        ? new ListDiff.Op(op.type, op.index, count, -1)
+                        : new ListDiff.Op(op.type, op.index + done, count, op.sourceIndex + done);
+                done += count;
+                if (done == op.count) {
+                    opIndex++;
+                    done = 0;
+                }
+                return () -> apply(chunk, target);
+            }
+        };
+    }
+
+    private void apply(ListDiff.Op op, Target<T> target) {
+        final List<T> items = target.items;
+        switch (op.type) {
+            case INSERT:
+                items.addAll(op.index, after.subList(op.sourceIndex, op.sourceIndex + op.count));
+                break;
+            case REMOVE:
+                items.subList(op.index, op.index + op.count).clear();
+                break;
+            case CHANGE:
+                for (int i = 0; i < op.count; i++) {
+                    items.set(op.index + i, after.get(op.sourceIndex + i));
+                }
+                break;
+        }
+        target.fire(op);
+    }
+
+    // 差分を適用される側。EDTからだけ触る
+    abstract static class Target<T> {
+        final List<T> items = new ArrayList<>();
+
+        abstract void fire(ListDiff.Op op);
+    }
+
+    static <T> List<T> copyOf(List<T> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.awt.*;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+
+/**
+ * JListの行の下端の累積和を持ち、座標から行を二分探索で引く
+ * <p>
+ * 高さが行ごとに違うと、locationToIndexは先頭から行の高さを足していくので、行数に比例して遅くなる。
+ * 行の高さはBasicListUIと同じくレンダラーの推奨サイズで測り、モデルが変わったら変わった行以降だけを測り直す。
+ * リストごとに1つをクライアントプロパティに持ち、hoverとclickで共有する。EDTからだけ使う。
+ * 最後の購読がreleaseしたら、リスナーとクライアントプロパティを外す。
+ */
+class ListRowIndex {
+
+    private static final Object KEY = ListRowIndex.class;
+
+    private final JList<?> list;
+    private final ListDataListener dataListener = new ListDataListener() {
+        @Override
+        public void intervalAdded(ListDataEvent e) {
+            invalidateFrom(e.getIndex0());
+        }
+
+        @Override
+        public void intervalRemoved(ListDataEvent e) {
+            invalidateFrom(e.getIndex0());
+        }
+
+        @Override
+        public void contentsChanged(ListDataEvent e) {
+            // 範囲の分からない変更は-1で来る
+            invalidateFrom(e.getIndex0() < 0 ? 0 : Math.min(e.getIndex0(), e.getIndex1()));
+        }
+    };
+    private final PropertyChangeListener propertyListener = this::propertyChanged;
+    // bottoms[i] = 行0からiまでの高さの和
+    private int[] bottoms = new int[0];
+    // bottomsのうち、先頭から何行分が正しいか
+    private int validCount = 0;
+    @Nullable
+    private ListModel<?> model;
+    // acquireしてまだreleaseしていない購読の数
+    private int references = 0;
+
+    private ListRowIndex(JList<?> list) {
+        this.list = list;
+    }
+
+    static ListRowIndex acquire(JList<?> list) {
+        final Object existing = list.getClientProperty(KEY);
+        final ListRowIndex index;
+        if (existing instanceof ListRowIndex) {
+            index = (ListRowIndex) existing;
+        } else {
+            index = new ListRowIndex(list);
+            index.install();
+            list.putClientProperty(KEY, index);
+        }
+        index.references++;
+        return index;
+    }
+
+    void release() {
+        if (--references == 0) {
+            uninstall();
+        }
+    }
+
+    private void install() {
+        model = list.getModel();
+        model.addListDataListener(dataListener);
+        list.addPropertyChangeListener(propertyListener);
+    }
+
+    private void uninstall() {
+        list.removePropertyChangeListener(propertyListener);
+        if (model != null) {
+            model.removeListDataListener(dataListener);
+            model = null;
+        }
+        if (list.getClientProperty(KEY) == this) {
+            list.putClientProperty(KEY, null);
+        }
+        bottoms = new int[0];
+        validCount = 0;
+    }
+
+    private void propertyChanged(PropertyChangeEvent e) {
+        switch (e.getPropertyName()) {
+            case "model":
+                if (model != null) {
+                    model.removeListDataListener(dataListener);
+                }
+                model = list.getModel();
+                model.addListDataListener(dataListener);
+                invalidateFrom(0);
+                break;
+            case "cellRenderer":
+            case "font":
+            case "fixedCellHeight":
+            case "prototypeCellValue":
+            case "layoutOrientation":
+                invalidateFrom(0);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * pointが乗っている行。どの行にも乗っていなければ-1
+     * <p>
+     * 縦に並べる時だけ索引を使い、折り返して並べる時はlocationToIndexに任せる。
+     * locationToIndexは一番近い行を返すので、行の外なら縦に並べる時と同じく-1にする
+     */
+    int locationToIndex(Point point) {
+        if (list.getLayoutOrientation() != JList.VERTICAL) {
+            final int index = list.locationToIndex(point);
+            if (index < 0) {
+                return -1;
+            }
+            final Rectangle bounds = list.getCellBounds(index, index);
+            return bounds != null && bounds.contains(point) ? index : -1;
+        }
+        final int size = list.getModel().getSize();
+        final int y = point.y - list.getInsets().top;
+        if (size == 0 || y < 0) {
+            return -1;
+        }
+        final int fixedCellHeight = list.getFixedCellHeight();
+        if (0 < fixedCellHeight) {
+            final int row = y / fixedCellHeight;
+            return row < size ? row : -1;
+        }
+        final int[] bottoms = measure(size);
+        if (bottoms[size - 1] <= y) {
+            return -1;
+        }
+        // y < bottoms[row]となる最初の行。高さ0の行は飛ばす
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (bottoms[middle] <= y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void invalidateFrom(int row) {
+        validCount = Math.min(validCount, row);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int[] measure(int size) {
+        validCount = Math.min(validCount, size);
+        if (validCount == size && bottoms.length == size) {
+            return bottoms;
+        }
+        if (bottoms.length != size) {
+            bottoms = Arrays.copyOf(bottoms, size);
+        }
+        final JList<Object> list = (JList<Object>) this.list;
+        final ListCellRenderer<Object> renderer = list.getCellRenderer();
+        final ListModel<Object> model = list.getModel();
+        int bottom = validCount == 0 ? 0 : bottoms[validCount - 1];
+        for (int i = validCount; i < size; i++) {
+            final Component component = renderer.getListCellRendererComponent(list, model.getElementAt(i), i, false, false);
+            bottom += component.getPreferredSize().height;
+            bottoms[i] = bottom;
+        }
+        validCount = size;
+        return bottoms;
+    }
+}
@@ -1,11 +1,17 @@
 package com.github.guignol.swing.binding;
 
 import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Predicate;
+import io.reactivex.observers.DisposableObserver;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class Notification<K, V> {
     public final K key;
@@ -46,4 +52,148 @@ public class Notification<K, V> {
             @Nullable K... filter) {
         return new BindableViewModel<>(source.filter(getFilter(filter)).map(notification -> notification.value));
     }
+
+    public static <K extends Enum<K> & Notification.FromValue<K, V>, V> Hub<K, V> hub(
+            @NonNull Observable<Notification<K, V>> source,
+            @NonNull Class<K> keyType) {
+        return new Hub<>(source, keyType);
+    }
+
+    /**
+     * getBinderと同じことを、購読者をキーのordinalで引ける表に登録して行う
+     * <p>
+     * getBinderはBinderごとに全ての通知をフィルターにかけるので、Binderの数×キーの数だけ比較が走る。
+     * Hubは元のストリームを1回だけ購読し、通知のキーに登録されているBinderにだけ流す。
+     * 最初のBinderが購読された時に元のストリームを購読し、最後のBinderが破棄された時にやめる。
+     */
+    public static class Hub<K extends Enum<K> & Notification.FromValue<K, V>, V> {
+
+        private final Observable<Notification<K, V>> source;
+        // ordinalごとの購読者。書き込み時にコピーする
+        private volatile ObservableEmitter<V>[][] byKey;
+        // フィルターなしの購読者
+        private volatile ObservableEmitter<V>[] all;
+        private int count = 0;
+        private Disposable connection;
+
+        @SuppressWarnings("unchecked")
+        Hub(Observable<Notification<K, V>> source, Class<K> keyType) {
+            this.source = source;
+            final int size = keyType.getEnumConstants().length;
+            this.byKey = (ObservableEmitter<V>[][]) new ObservableEmitter<?>[size][0];
+            this.all = (ObservableEmitter<V>[]) new ObservableEmitter<?>[0];
+        }
+
+        @SafeVarargs
+        public final BindableViewModel<V> getBinder(@Nullable K... filter) {
+            final EnumSet<K> keys = filter == null || filter.length == 0 ? null : EnumSet.noneOf(filter[0].getDeclaringClass());
+            if (keys != null) {
+                // 配列を他のメソッドに渡さず、要素だけを写す
+                for (K key : filter) {
+                    keys.add(key);
+                }
+            }
+            return new BindableViewModel<>(Observable.create(emitter -> {
+                add(emitter, keys);
+                emitter.setCancellable(() -> remove(emitter, keys));
+            }));
+        }
+
+        private synchronized void add(ObservableEmitter<V> emitter, @Nullable EnumSet<K> keys) {
+            if (keys == null) {
+                all = append(all, emitter);
+            } else {
+                final ObservableEmitter<V>[][] next = byKey.clone();
+                for (K key : keys) {
+                    next[key.ordinal()] = append(next[key.ordinal()], emitter);
+                }
+                byKey = next;
+            }
+            if (count++ == 0) {
+                // sourceが購読中にその場で終わると、その中で最後の購読者が外れてconnectionを破棄する。
+                // 購読より先にconnectionを入れておかないと、終わったconnectionが残る
+                final DisposableObserver<Notification<K, V>> observer = new DisposableObserver<Notification<K, V>>() {
+                    @Override
+                    public void onNext(Notification<K, V> notification) {
+                        dispatch(notification);
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        error(throwable);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        complete();
+                    }
+                };
+                connection = observer;
+                source.subscribe(observer);
+            }
+        }
+
+        private synchronized void remove(ObservableEmitter<V> emitter, @Nullable EnumSet<K> keys) {
+            if (keys == null) {
+                all = without(all, emitter);
+            } else {
+                final ObservableEmitter<V>[][] next = byKey.clone();
+                for (K key : keys) {
+                    next[key.ordinal()] = without(next[key.ordinal()], emitter);
+                }
+                byKey = next;
+            }
+            if (--count == 0 && connection != null) {
+                connection.dispose();
+                connection = null;
+            }
+        }
+
+        private void dispatch(Notification<K, V> notification) {
+            for (ObservableEmitter<V> emitter : byKey[notification.key.ordinal()]) {
+                emitter.onNext(notification.value);
+            }
+            for (ObservableEmitter<V> emitter : all) {
+                emitter.onNext(notification.value);
+            }
+        }
+
+        private void error(Throwable throwable) {
+            for (ObservableEmitter<V> emitter : subscribers()) {
+                emitter.onError(throwable);
+            }
+        }
+
+        private void complete() {
+            for (ObservableEmitter<V> emitter : subscribers()) {
+                emitter.onComplete();
+            }
+        }
+
+        // 複数のキーで登録されている購読者も1回だけ
+        private Set<ObservableEmitter<V>> subscribers() {
+            final Set<ObservableEmitter<V>> subscribers = new LinkedHashSet<>(Arrays.asList(all));
+            for (ObservableEmitter<V>[] emitters : byKey) {
+                subscribers.addAll(Arrays.asList(emitters));
+            }
+            return subscribers;
+        }
+
+        private static <V> ObservableEmitter<V>[] append(ObservableEmitter<V>[] emitters, ObservableEmitter<V> emitter) {
+            final ObservableEmitter<V>[] next = Arrays.copyOf(emitters, emitters.length + 1);
+            next[emitters.length] = emitter;
+            return next;
+        }
+
+        private static <V> ObservableEmitter<V>[] without(ObservableEmitter<V>[] emitters, ObservableEmitter<V> emitter) {
+            for (int i = 0; i < emitters.length; i++) {
+                if (emitters[i] == emitter) {
+                    final ObservableEmitter<V>[] next = Arrays.copyOf(emitters, emitters.length - 1);
+                    System.arraycopy(emitters, i + 1, next, i, emitters.length - i - 1);
+                    return next;
+                }
+            }
+            return emitters;
+        }
+    }
 }
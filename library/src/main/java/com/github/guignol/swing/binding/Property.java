@@ -1,9 +1,11 @@
 package com.github.guignol.swing.binding;
 
+import com.github.guignol.swing.rx.Backpressure;
+import com.github.guignol.swing.rx.Conflation;
 import com.github.guignol.swing.rx.SwingScheduler;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.annotations.Nullable;
-import io.reactivex.disposables.Disposables;
 import io.reactivex.functions.BiPredicate;
 import io.reactivex.functions.Function;
 import io.reactivex.subjects.PublishSubject;
@@ -27,185 +29,460 @@ public class Property {
         HIDDEN
     }
 
-    public static Observable<Event> onEvent(Component component, @Nullable Event... filter) {
-        final List<Event> events = Arrays.asList(filter == null ? Event.values() : filter);
-        final boolean notifyWhenResized = events.contains(Event.RESIZED);
-        final boolean notifyWhenMoved = events.contains(Event.MOVED);
-        final boolean notifyWhenShown = events.contains(Event.SHOWN);
-        final boolean notifyWhenHidden = events.contains(Event.HIDDEN);
-        return Observable.<Event>create(emitter -> {
-            final ComponentListener eventListener = new ComponentListener() {
-
-                @Override
-                public void componentResized(ComponentEvent e) {
-                    if (notifyWhenResized) {
-                        emitter.onNext(Event.RESIZED);
-                    }
+    // ComponentEventのIDと同じ順
+    private static final Event[] EVENTS = Event.values();
+
+    // 購読が増えてもリスナーはコンポーネントごとに1つ
+    private static final SharedListener<Component, ComponentListener, ComponentEvent> COMPONENT_EVENTS =
+            new SharedListener<Component, ComponentListener, ComponentEvent>() {
+                @Override
+                ComponentListener createListener(Fanout<Component, ComponentListener, ComponentEvent> fanout) {
+                    return new ComponentListener() {
+                        @Override
+                        public void componentResized(ComponentEvent e) {
+                            fanout.dispatch(e);
+                        }
+
+                        @Override
+                        public void componentMoved(ComponentEvent e) {
+                            fanout.dispatch(e);
+                        }
+
+                        @Override
+                        public void componentShown(ComponentEvent e) {
+                            fanout.dispatch(e);
+                        }
+
+                        @Override
+                        public void componentHidden(ComponentEvent e) {
+                            fanout.dispatch(e);
+                        }
+                    };
                 }
 
                 @Override
-                public void componentMoved(ComponentEvent e) {
-                    if (notifyWhenMoved) {
-                        emitter.onNext(Event.MOVED);
-                    }
+                void addListener(Component source, ComponentListener listener) {
+                    source.addComponentListener(listener);
                 }
 
                 @Override
-                public void componentShown(ComponentEvent e) {
-                    if (notifyWhenShown) {
-                        emitter.onNext(Event.SHOWN);
-                    }
+                void removeListener(Component source, ComponentListener listener) {
+                    source.removeComponentListener(listener);
                 }
+            };
 
+    private static final SharedListener<Component, MouseListener, MouseEvent> CLICKS =
+            new SharedListener<Component, MouseListener, MouseEvent>() {
                 @Override
-                public void componentHidden(ComponentEvent e) {
-                    if (notifyWhenHidden) {
-                        emitter.onNext(Event.HIDDEN);
-                    }
+                MouseListener createListener(Fanout<Component, MouseListener, MouseEvent> fanout) {
+                    return new MouseAdapter() {
+                        @Override
+                        public void mouseClicked(MouseEvent event) {
+                            fanout.dispatch(event);
+                        }
+                    };
+                }
+
+                @Override
+                void addListener(Component source, MouseListener listener) {
+                    source.addMouseListener(listener);
+                }
+
+                @Override
+                void removeListener(Component source, MouseListener listener) {
+                    source.removeMouseListener(listener);
                 }
             };
-            component.addComponentListener(eventListener);
-            emitter.setDisposable(Disposables.fromAction(() -> component.removeComponentListener(eventListener)));
-        })
-                .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
 
-    public static Observable<MouseEvent> onClick(Component component) {
-        return Observable.<MouseEvent>create(emitter -> {
-            final MouseAdapter listener = new MouseAdapter() {
+    private static final SharedListener<AbstractButton, ActionListener, ActionEvent> ACTIONS =
+            new SharedListener<AbstractButton, ActionListener, ActionEvent>() {
+                @Override
+                ActionListener createListener(Fanout<AbstractButton, ActionListener, ActionEvent> fanout) {
+                    return fanout::dispatch;
+                }
+
+                @Override
+                void addListener(AbstractButton source, ActionListener listener) {
+                    source.addActionListener(listener);
+                }
+
                 @Override
-                public void mouseClicked(MouseEvent event) {
-                    emitter.onNext(event);
+                void removeListener(AbstractButton source, ActionListener listener) {
+                    source.removeActionListener(listener);
                 }
             };
-            component.addMouseListener(listener);
-            emitter.setDisposable(Disposables.fromAction(() -> component.removeMouseListener(listener)));
-        })
-                .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
 
-    public static Observable<ActionEvent> onAction(AbstractButton button) {
-        return Observable.<ActionEvent>create(emitter -> {
-            final ActionListener actionListener = emitter::onNext;
-            button.addActionListener(actionListener);
-            emitter.setDisposable(Disposables.fromAction(() -> button.removeActionListener(actionListener)));
-        })
-                .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
+    private static final SharedListener<AbstractButton, ChangeListener, ChangeEvent> BUTTON_CHANGES =
+            new SharedListener<AbstractButton, ChangeListener, ChangeEvent>() {
+                @Override
+                ChangeListener createListener(Fanout<AbstractButton, ChangeListener, ChangeEvent> fanout) {
+                    return fanout::dispatch;
+                }
 
-    public static Observable<String> onInput(JTextComponent textComponent) {
-        final Observable<String> onDocumentUpdated = onDocumentUpdated(textComponent.getDocument())
-                .map(documentEvent -> textComponent.getText());
-        final PublishSubject<String> initialValue = PublishSubject.create();
-        return Observable.merge(onDocumentUpdated.hide(), initialValue)
-                // TODO 繋ぐ度に最新の値を取得したいけど、これで正しい？
-                .doOnSubscribe(disposable -> initialValue.onNext(textComponent.getText()))
-                .subscribeOn(SwingScheduler.getInstance());
-    }
+                @Override
+                void addListener(AbstractButton source, ChangeListener listener) {
+                    source.addChangeListener(listener);
+                }
 
-    public static Observable<DocumentEvent> onDocumentUpdated(Document document) {
-        return Observable.<DocumentEvent>create(emitter -> {
-            final DocumentListener listener = new DocumentListener() {
                 @Override
-                public void insertUpdate(DocumentEvent event) {
-                    emitter.onNext(event);
+                void removeListener(AbstractButton source, ChangeListener listener) {
+                    source.removeChangeListener(listener);
+                }
+            };
+
+    private static final SharedListener<JViewport, ChangeListener, ChangeEvent> VIEWPORT_CHANGES =
+            new SharedListener<JViewport, ChangeListener, ChangeEvent>() {
+                @Override
+                ChangeListener createListener(Fanout<JViewport, ChangeListener, ChangeEvent> fanout) {
+                    return fanout::dispatch;
                 }
 
                 @Override
-                public void removeUpdate(DocumentEvent event) {
-                    emitter.onNext(event);
+                void addListener(JViewport source, ChangeListener listener) {
+                    source.addChangeListener(listener);
                 }
 
                 @Override
-                public void changedUpdate(DocumentEvent event) {
-                    emitter.onNext(event);
+                void removeListener(JViewport source, ChangeListener listener) {
+                    source.removeChangeListener(listener);
                 }
             };
-            document.addDocumentListener(listener);
-            emitter.setDisposable(Disposables.fromAction(() -> document.removeDocumentListener(listener)));
-        })
-                .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-    }
 
-    public static Observable<Integer> onHovered(JList list) {
-        return Observable.<Integer>create(emitter -> {
-            final MouseAdapter adapter = new MouseAdapter() {
-                private boolean entered = false;
+    private static final SharedListener<Document, DocumentListener, DocumentEvent> DOCUMENT_UPDATES =
+            new SharedListener<Document, DocumentListener, DocumentEvent>() {
+                @Override
+                DocumentListener createListener(Fanout<Document, DocumentListener, DocumentEvent> fanout) {
+                    return new DocumentListener() {
+                        @Override
+                        public void insertUpdate(DocumentEvent event) {
+                            fanout.dispatch(event);
+                        }
+
+                        @Override
+                        public void removeUpdate(DocumentEvent event) {
+                            fanout.dispatch(event);
+                        }
+
+                        @Override
+                        public void changedUpdate(DocumentEvent event) {
+                            fanout.dispatch(event);
+                        }
+                    };
+                }
 
                 @Override
-                public void mouseEntered(MouseEvent e) {
-                    entered = true;
+                void addListener(Document source, DocumentListener listener) {
+                    source.addDocumentListener(listener);
                 }
 
                 @Override
-                public void mouseExited(MouseEvent e) {
-                    entered = false;
-                    emitter.onNext(-1);
+                void removeListener(Document source, DocumentListener listener) {
+                    source.removeDocumentListener(listener);
                 }
+            };
 
+    // 入った・出た・動いた。マウスとマウスモーションの両方に同じリスナーを登録する
+    private static final SharedListener<Component, MouseAdapter, MouseEvent> MOUSE_MOVES =
+            new SharedListener<Component, MouseAdapter, MouseEvent>() {
                 @Override
-                public void mouseMoved(MouseEvent e) {
-                    if (entered) {
-                        emitter.onNext(list.locationToIndex(e.getPoint()));
-                    } else {
-                        emitter.onNext(-1);
-                    }
+                MouseAdapter createListener(Fanout<Component, MouseAdapter, MouseEvent> fanout) {
+                    return new MouseAdapter() {
+                        @Override
+                        public void mouseEntered(MouseEvent e) {
+                            fanout.dispatch(e);
+                        }
+
+                        @Override
+                        public void mouseExited(MouseEvent e) {
+                            fanout.dispatch(e);
+                        }
+
+                        @Override
+                        public void mouseMoved(MouseEvent e) {
+                            fanout.dispatch(e);
+                        }
+                    };
+                }
+
+                @Override
+                void addListener(Component source, MouseAdapter listener) {
+                    source.addMouseListener(listener);
+                    source.addMouseMotionListener(listener);
+                }
+
+                @Override
+                void removeListener(Component source, MouseAdapter listener) {
+                    source.removeMouseListener(listener);
+                    source.removeMouseMotionListener(listener);
                 }
             };
-            list.addMouseListener(adapter);
-            list.addMouseMotionListener(adapter);
-            emitter.setDisposable(Disposables.fromAction(() -> {
-                list.removeMouseListener(adapter);
-                list.removeMouseMotionListener(adapter);
-            }));
+
+    private static final SharedListener<JList<?>, ListSelectionListener, ListSelectionEvent> LIST_SELECTIONS =
+            new SharedListener<JList<?>, ListSelectionListener, ListSelectionEvent>() {
+                @Override
+                ListSelectionListener createListener(Fanout<JList<?>, ListSelectionListener, ListSelectionEvent> fanout) {
+                    return fanout::dispatch;
+                }
+
+                @Override
+                void addListener(JList<?> source, ListSelectionListener listener) {
+                    source.addListSelectionListener(listener);
+                }
+
+                @Override
+                void removeListener(JList<?> source, ListSelectionListener listener) {
+                    source.removeListSelectionListener(listener);
+                }
+            };
+
+    private static final SharedListener<ListSelectionModel, ListSelectionListener, ListSelectionEvent> SELECTION_MODEL_CHANGES =
+            new SharedListener<ListSelectionModel, ListSelectionListener, ListSelectionEvent>() {
+                @Override
+                ListSelectionListener createListener(Fanout<ListSelectionModel, ListSelectionListener, ListSelectionEvent> fanout) {
+                    return fanout::dispatch;
+                }
+
+                @Override
+                void addListener(ListSelectionModel source, ListSelectionListener listener) {
+                    source.addListSelectionListener(listener);
+                }
+
+                @Override
+                void removeListener(ListSelectionModel source, ListSelectionListener listener) {
+                    source.removeListSelectionListener(listener);
+                }
+            };
+
+    public static Observable<Event> onEvent(Component component, @Nullable Event... filter) {
+        final Observable<Event> events = COMPONENT_EVENTS.observe(component)
+                .map(e -> EVENTS[e.getID() - ComponentEvent.COMPONENT_FIRST]);
+        if (filter == null) {
+            return events;
+        }
+        final List<Event> filtered = Arrays.asList(filter);
+        return events.filter(filtered::contains);
+    }
+
+    public static Flowable<Event> onEvent(Component component, Backpressure backpressure, @Nullable Event... filter) {
+        return backpressure.apply(onEvent(component, filter));
+    }
+
+    // 1フレームに1回、最後のイベントだけ流す
+    public static Observable<Event> onEventPerFrame(Component component, @Nullable Event... filter) {
+        return onEvent(component, filter).compose(Conflation.perFrame());
+    }
+
+    public static Observable<MouseEvent> onClick(Component component) {
+        return CLICKS.observe(component);
+    }
+
+    public static Observable<ActionEvent> onAction(AbstractButton button) {
+        return ACTIONS.observe(button);
+    }
+
+    public static Observable<String> onInput(JTextComponent textComponent) {
+        final Observable<String> onDocumentUpdated = onDocumentUpdated(textComponent.getDocument())
+                .map(documentEvent -> textComponent.getText());
+        final PublishSubject<String> initialValue = PublishSubject.create();
+        return Observable.merge(onDocumentUpdated.hide(), initialValue)
+                // TODO 繋ぐ度に最新の値を取得したいけど、これで正しい？
+                .doOnSubscribe(disposable -> initialValue.onNext(textComponent.getText()))
+                .subscribeOn(SwingScheduler.getInstance());
+    }
+
+    // 入力のたびにgetText()で全体をコピーせず、1フレームに1回だけ取得する
+    public static Observable<String> onInputPerFrame(JTextComponent textComponent) {
+        return onDocumentUpdated(textComponent.getDocument())
+                .compose(Conflation.perFrame())
+                .map(documentEvent -> textComponent.getText())
+                .startWith(Observable.fromCallable(textComponent::getText))
+                .subscribeOn(SwingScheduler.getInstance());
+    }
+
+    // 変更された範囲だけを流すので、Documentの大きさによらず編集量に比例したコストで済む
+    public static Observable<TextDelta> onTextDelta(JTextComponent textComponent) {
+        return onDocumentUpdated(textComponent.getDocument())
+                .map(TextDelta::from);
+    }
+
+    // Documentをコピーせずに読めるビューを、変更のたびに同じインスタンスで流す
+    public static Observable<CharSequence> onDocumentText(JTextComponent textComponent) {
+        final Document document = textComponent.getDocument();
+        return Observable.defer(() -> {
+            final DocumentText text = new DocumentText(document);
+            return onDocumentUpdated(document)
+                    .map(documentEvent -> {
+                        text.invalidate();
+                        return (CharSequence) text;
+                    })
+                    .startWith(text);
+        })
+                .subscribeOn(SwingScheduler.getInstance());
+    }
+
+    public static Observable<DocumentEvent> onDocumentUpdated(Document document) {
+        return DOCUMENT_UPDATES.observe(document);
+    }
+
+    public static Flowable<DocumentEvent> onDocumentUpdated(Document document, Backpressure backpressure) {
+        return backpressure.apply(onDocumentUpdated(document));
+    }
+
+    // 行の位置を索引から引くので、高さが行ごとに違う10万行のリストでも移動のたびに行を辿らない
+    public static Observable<Integer> onHovered(JList<?> list) {
+        return withRowIndex(list, index -> onHovered(list, index::locationToIndex, -1));
+    }
+
+    public static Observable<CellPosition> onHovered(JTable table) {
+        return onHovered(table, point -> cellAt(table, point), CellPosition.NONE);
+    }
+
+    public static Observable<Integer> onHovered(JTree tree) {
+        return onHovered(tree, point -> tree.getRowForLocation(point.x, point.y), -1);
+    }
+
+    // マウスが乗っているセルをresolverで求め、セルが変わった時だけ流す。外に出たらoutside
+    private static <T> Observable<T> onHovered(Component component, Function<Point, T> resolve, T outside) {
+        return Observable.defer(() -> {
+            // 購読ごとの状態。リスナーはコンポーネントごとに1つ
+            final boolean[] entered = {false};
+            return MOUSE_MOVES.observeOnEdt(component)
+                    .filter(e -> {
+                        if (e.getID() == MouseEvent.MOUSE_ENTERED) {
+                            entered[0] = true;
+                            return false;
+                        }
+                        if (e.getID() == MouseEvent.MOUSE_EXITED) {
+                            entered[0] = false;
+                        }
+                        return true;
+                    })
+                    .map(e -> entered[0] ? resolve.apply(e.getPoint()) : outside);
         })
                 .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance())
                 .distinctUntilChanged();
     }
 
-    public static Observable<int[]> onSelection(JList list) {
-        return Observable.<int[]>create(emitter -> {
-            final ListSelectionListener selectionListener = e -> emitter.onNext(list.getSelectedIndices());
-            list.addListSelectionListener(selectionListener);
-            // 初期値
-            emitter.onNext(list.getSelectedIndices());
-            emitter.setDisposable(Disposables.fromAction(() -> list.removeListSelectionListener(selectionListener)));
-        })
+    // クリックされた行。どの行の上でもなければ-1
+    public static Observable<Integer> onClickedIndex(JList<?> list) {
+        return withRowIndex(list, index -> onClick(list).map(e -> index.locationToIndex(e.getPoint())));
+    }
+
+    // 購読している間だけリストの索引を持ち、最後の購読が破棄されたら索引のリスナーを外す
+    private static <T> Observable<T> withRowIndex(JList<?> list, Function<ListRowIndex, Observable<T>> source) {
+        return Observable.using(() -> ListRowIndex.acquire(list), source, ListRowIndex::release)
                 .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance())
+                .unsubscribeOn(SwingScheduler.getInstance());
+    }
+
+    public static Observable<CellPosition> onClickedCell(JTable table) {
+        return onClick(table).map(e -> cellAt(table, e.getPoint()));
+    }
+
+    public static Observable<Integer> onClickedRow(JTree tree) {
+        return onClick(tree).map(e -> tree.getRowForLocation(e.getX(), e.getY()));
+    }
+
+    // JTableは行の高さをSizeSequenceで持っているので、rowAtPointは二分探索で済む
+    private static CellPosition cellAt(JTable table, Point point) {
+        return CellPosition.of(table.rowAtPoint(point), table.columnAtPoint(point));
+    }
+
+    public static Flowable<Integer> onHovered(JList<?> list, Backpressure backpressure) {
+        return backpressure.apply(onHovered(list));
+    }
+
+    public static Observable<Integer> onHoveredPerFrame(JList<?> list) {
+        return onHovered(list)
+                .compose(Conflation.perFrame())
                 .distinctUntilChanged();
     }
 
-    // TODO column
+    public static Observable<int[]> onSelection(JList<?> list) {
+        return Observable.defer(() -> LIST_SELECTIONS.observeOnEdt(list)
+                .map(e -> list.getSelectedIndices())
+                // 初期値
+                .startWith(list.getSelectedIndices()))
+                .subscribeOn(SwingScheduler.getInstance())
+                .distinctUntilChanged(Arrays::equals);
+    }
+
     public static Observable<int[]> onSelection(JTable table) {
-        return Observable.<int[]>create(emitter -> {
-            final ListSelectionListener selectionListener = e -> emitter.onNext(table.getSelectedRows());
-            final ListSelectionModel selectionModel = table.getSelectionModel();
-            selectionModel.addListSelectionListener(selectionListener);
-            // 初期値
-            emitter.onNext(table.getSelectedRows());
-            emitter.setDisposable(Disposables.fromAction(() -> selectionModel.removeListSelectionListener(selectionListener)));
-        })
+        return Observable.defer(() -> SELECTION_MODEL_CHANGES.observeOnEdt(table.getSelectionModel())
+                .map(e -> table.getSelectedRows())
+                // 初期値
+                .startWith(table.getSelectedRows()))
                 .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance())
-                .distinctUntilChanged();
+                .distinctUntilChanged(Arrays::equals);
     }
 
-    public static Observable<ChangeEvent> onChanged(JViewport viewport) {
-        return Observable.<ChangeEvent>create(emitter -> {
-            final ChangeListener changeListener = emitter::onNext;
-            viewport.addChangeListener(changeListener);
-            emitter.setDisposable(Disposables.fromAction(() -> viewport.removeChangeListener(changeListener)));
+    public static Observable<int[]> onColumnSelection(JTable table) {
+        return Observable.defer(() -> SELECTION_MODEL_CHANGES.observeOnEdt(table.getColumnModel().getSelectionModel())
+                .map(e -> table.getSelectedColumns())
+                // 初期値
+                .startWith(table.getSelectedColumns()))
+                .subscribeOn(SwingScheduler.getInstance())
+                .distinctUntilChanged(Arrays::equals);
+    }
+
+    public static Observable<Selection.Change> onSelectionChange(JList<?> list) {
+        return onSelectionChange(list.getSelectionModel());
+    }
+
+    public static Observable<Selection.Change> onSelectionChange(JTable table) {
+        return onSelectionChange(table.getSelectionModel());
+    }
+
+    public static Observable<Selection.Change> onColumnSelectionChange(JTable table) {
+        return onSelectionChange(table.getColumnModel().getSelectionModel());
+    }
+
+    // 選択を範囲で持ち、イベントで変わった範囲だけを走査して差分を流す。ドラッグ中の途中経過は流さない
+    public static Observable<Selection.Change> onSelectionChange(ListSelectionModel selectionModel) {
+        return Observable.<Selection.Change>create(emitter -> {
+            final Selection initial = Selection.of(selectionModel);
+            final ListSelectionListener selectionListener = new ListSelectionListener() {
+                private Selection current = initial;
+                // valueIsAdjustingの間に変わった範囲
+                private int from = Integer.MAX_VALUE;
+                private int to = -1;
+
+                @Override
+                public void valueChanged(ListSelectionEvent e) {
+                    from = Math.min(from, e.getFirstIndex());
+                    to = Math.max(to, e.getLastIndex());
+                    if (e.getValueIsAdjusting()) {
+                        return;
+                    }
+                    final Selection next = from < 0
+                            ? Selection.of(selectionModel)
+                            : current.replace(from, to, Selection.scan(selectionModel, from, to));
+                    from = Integer.MAX_VALUE;
+                    to = -1;
+                    final Selection.Change change = Selection.Change.between(current, next);
+                    current = next;
+                    if (!change.isEmpty()) {
+                        emitter.onNext(change);
+                    }
+                }
+            };
+            emitter.setDisposable(SELECTION_MODEL_CHANGES.observeOnEdt(selectionModel)
+                    .subscribe(selectionListener::valueChanged));
+            // 初期値
+            emitter.onNext(Selection.Change.between(Selection.EMPTY, initial));
         })
                 .subscribeOn(SwingScheduler.getInstance())
                 .unsubscribeOn(SwingScheduler.getInstance());
     }
 
+    public static Observable<ChangeEvent> onChanged(JViewport viewport) {
+        return VIEWPORT_CHANGES.observe(viewport);
+    }
+
+    public static Observable<ChangeEvent> onChangedPerFrame(JViewport viewport) {
+        return onChanged(viewport).compose(Conflation.perFrame());
+    }
+
     public static <T> Observable<T> onChanged(AbstractButton button,
                                               Function<AbstractButton, T> getter) {
         return onChanged(button, getter, Objects::equals);
@@ -214,26 +491,12 @@ public class Property {
     public static <T> Observable<T> onChanged(AbstractButton button,
                                               Function<AbstractButton, T> getter,
                                               BiPredicate<? super T, ? super T> comparer) {
-        return Observable.<T>create(emitter -> {
-            final ChangeListener changeListener = e -> {
-                final T property;
-                try {
-                    property = getter.apply(button);
-                } catch (Exception exception) {
-                    exception.printStackTrace();
-                    emitter.onError(exception);
-                    return;
-                }
-                emitter.onNext(property);
-            };
-            button.addChangeListener(changeListener);
-            // 初期値
-            final T property = getter.apply(button);
-            emitter.onNext(property);
-            emitter.setDisposable(Disposables.fromAction(() -> button.removeChangeListener(changeListener)));
-        })
+        return Observable.defer(() -> BUTTON_CHANGES.observe(button)
+                .map(e -> getter.apply(button))
+                .doOnError(Throwable::printStackTrace)
+                // 初期値
+                .startWith(getter.apply(button)))
                 .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance())
                 .distinctUntilChanged(comparer);
     }
 }
@@ -0,0 +1,12 @@
+package com.github.guignol.swing.binding;
+
+/**
+ * ViewPoolで使い回せるView
+ * <p>
+ * recycleでは、bindで作った購読(BindableView、BindableViewModelなど)を全て破棄し、
+ * 入力や選択などの表示を作った直後の状態に戻すこと。その後、新しいViewModelでbindされる。
+ */
+public interface Recyclable {
+
+    void recycle();
+}
@@ -1,9 +1,9 @@
 package com.github.guignol.swing.binding;
 
 import io.reactivex.Observable;
-import io.reactivex.subjects.PublishSubject;
 
 import javax.swing.*;
+import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
@@ -11,15 +11,30 @@ import java.util.function.Consumer;
 
 public class RightClick {
 
+    // 購読が増えてもリスナーはコンポーネントごとに1つ
+    private static final SharedListener<Component, MouseListener, MouseEvent> POPUP_TRIGGERS =
+            new SharedListener<Component, MouseListener, MouseEvent>() {
+                @Override
+                MouseListener createListener(Fanout<Component, MouseListener, MouseEvent> fanout) {
+                    return popupListener(e -> {
+                        fanout.dispatch(e);
+                        e.consume();
+                    });
+                }
+
+                @Override
+                void addListener(Component source, MouseListener listener) {
+                    source.addMouseListener(listener);
+                }
+
+                @Override
+                void removeListener(Component source, MouseListener listener) {
+                    source.removeMouseListener(listener);
+                }
+            };
+
     public static Observable<MouseEvent> onPopupTriggered(JComponent component) {
-        final PublishSubject<MouseEvent> subject = PublishSubject.create();
-        final MouseListener listener = popupListener(e -> {
-            subject.onNext(e);
-            e.consume();
-        });
-        return subject.hide()
-                .doOnSubscribe(disposable -> component.addMouseListener(listener))
-                .doOnDispose(() -> component.removeMouseListener(listener));
+        return POPUP_TRIGGERS.observe(component);
     }
 
     private static MouseListener popupListener(Consumer<MouseEvent> consumer) {
@@ -0,0 +1,232 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.annotations.NonNull;
+
+import javax.swing.*;
+import java.util.Arrays;
+
+/**
+ * 選択状態を連続する範囲の列で持つスナップショット
+ * <p>
+ * getSelectedIndices()は選択数の大きさの配列を作るので、10万行の範囲選択でも範囲1つ分で済むようにする。
+ * 範囲は昇順で、隣接・重複しない。
+ */
+public class Selection {
+
+    public static final Selection EMPTY = new Selection(new int[0]);
+
+    // [start0, end0, start1, end1, ...] (endを含む)
+    private final int[] ranges;
+
+    private Selection(int[] ranges) {
+        this.ranges = ranges;
+    }
+
+    public static Selection of(ListSelectionModel model) {
+        return scan(model, model.getMinSelectionIndex(), model.getMaxSelectionIndex());
+    }
+
+    // [from, to]の範囲だけを走査する
+    static Selection scan(ListSelectionModel model, int from, int to) {
+        final int min = Math.max(from, model.getMinSelectionIndex());
+        final int max = Math.min(to, model.getMaxSelectionIndex());
+        if (min < 0 || max < min) {
+            return EMPTY;
+        }
+        final Builder builder = new Builder();
+        int start = -1;
+        for (int i = min; i <= max; i++) {
+            if (model.isSelectedIndex(i)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (0 <= start) {
+                builder.add(start, i - 1);
+                start = -1;
+            }
+        }
+        if (0 <= start) {
+            builder.add(start, max);
+        }
+        return builder.build();
+    }
+
+    // [from, to]の範囲をwindowで置き換えたものを返す
+    Selection replace(int from, int to, Selection window) {
+        final Builder builder = new Builder();
+        int i = 0;
+        // [from, to]を跨いでいる範囲の後ろ側
+        int tailEnd = -1;
+        for (; i < ranges.length && ranges[i] < from; i += 2) {
+            builder.add(ranges[i], Math.min(ranges[i + 1], from - 1));
+            if (to < ranges[i + 1]) {
+                tailEnd = ranges[i + 1];
+            }
+        }
+        for (int j = 0; j < window.ranges.length; j += 2) {
+            builder.add(Math.max(window.ranges[j], from), Math.min(window.ranges[j + 1], to));
+        }
+        if (0 <= tailEnd) {
+            builder.add(to + 1, tailEnd);
+        }
+        for (; i < ranges.length; i += 2) {
+            if (to < ranges[i + 1]) {
+                builder.add(Math.max(ranges[i], to + 1), ranges[i + 1]);
+            }
+        }
+        return builder.build();
+    }
+
+    // thisにあってotherにない範囲
+    public Selection minus(@NonNull Selection other) {
+        final Builder builder = new Builder();
+        int j = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            int start = ranges[i];
+            final int end = ranges[i + 1];
+            while (j < other.ranges.length && other.ranges[j + 1] < start) {
+                j += 2;
+            }
+            int k = j;
+            while (start <= end && k < other.ranges.length && other.ranges[k] <= end) {
+                if (start < other.ranges[k]) {
+                    builder.add(start, other.ranges[k] - 1);
+                }
+                start = Math.max(start, other.ranges[k + 1] + 1);
+                k += 2;
+            }
+            if (start <= end) {
+                builder.add(start, end);
+            }
+        }
+        return builder.build();
+    }
+
+    public boolean isEmpty() {
+        return ranges.length == 0;
+    }
+
+    // 選択されている要素数
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            size += ranges[i + 1] - ranges[i] + 1;
+        }
+        return size;
+    }
+
+    public boolean contains(int index) {
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (ranges[mid * 2 + 1] < index) {
+                low = mid + 1;
+            } else if (index < ranges[mid * 2]) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getRangeCount() {
+        return ranges.length / 2;
+    }
+
+    public int getRangeStart(int range) {
+        return ranges[range * 2];
+    }
+
+    public int getRangeEnd(int range) {
+        return ranges[range * 2 + 1];
+    }
+
+    // getSelectedIndices()互換の配列。要素数分の配列を作るので必要な時だけ
+    public int[] toIndices() {
+        final int[] indices = new int[size()];
+        int n = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            for (int index = ranges[i]; index <= ranges[i + 1]; index++) {
+                indices[n++] = index;
+            }
+        }
+        return indices;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(ranges, ((Selection) o).ranges);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ranges);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("Selection[");
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+            builder.append(ranges[i]);
+            if (ranges[i] != ranges[i + 1]) {
+                builder.append('-').append(ranges[i + 1]);
+            }
+        }
+        return builder.append(']').toString();
+    }
+
+    public static class Change {
+        @NonNull
+        public final Selection selection;
+        @NonNull
+        public final Selection added;
+        @NonNull
+        public final Selection removed;
+
+        Change(@NonNull Selection selection, @NonNull Selection added, @NonNull Selection removed) {
+            this.selection = selection;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        static Change between(Selection before, Selection after) {
+            return new Change(after, after.minus(before), before.minus(after));
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    private static class Builder {
+        private int[] ranges = new int[4];
+        private int size = 0;
+
+        void add(int start, int end) {
+            if (end < start) {
+                return;
+            }
+            // 直前の範囲と隣接していれば繋げる
+            if (0 < size && ranges[size - 1] + 1 >= start) {
+                ranges[size - 1] = Math.max(ranges[size - 1], end);
+                return;
+            }
+            if (size == ranges.length) {
+                ranges = Arrays.copyOf(ranges, size * 2);
+            }
+            ranges[size++] = start;
+            ranges[size++] = end;
+        }
+
+        Selection build() {
+            return size == 0 ? EMPTY : new Selection(Arrays.copyOf(ranges, size));
+        }
+    }
+}
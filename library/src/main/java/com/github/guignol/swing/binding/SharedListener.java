@@ -0,0 +1,114 @@
+package com.github.guignol.swing.binding;
+
+import com.github.guignol.swing.rx.SwingScheduler;
+import com.github.guignol.swing.trace.TraceRecorder;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.disposables.Disposables;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 1つのコンポーネントに同じ種類のリスナーを1つだけ登録し、全ての購読者に配る
+ * <p>
+ * 購読のたびにリスナーを登録すると、バインディングの多い画面ではイベントごとにリスナーの一覧を何度も辿ることになる。
+ * コンポーネントは弱参照で持ち、配る先はコンポーネントに登録したリスナーからだけ辿れるようにするので、
+ * disposeされずに捨てられた画面もこのクラスが掴み続けることはない。
+ * EDTからだけ使う。
+ */
+abstract class SharedListener<S, L, E> {
+
+    private final Map<S, WeakReference<Fanout<S, L, E>>> fanouts = new WeakHashMap<>();
+
+    abstract L createListener(Fanout<S, L, E> fanout);
+
+    abstract void addListener(S source, L listener);
+
+    abstract void removeListener(S source, L listener);
+
+    Observable<E> observe(S source) {
+        return observeOnEdt(source)
+                .subscribeOn(SwingScheduler.getInstance());
+    }
+
+    // EDTで購読する時に使う。observeと違って登録を後回しにしないので、初期値を読んでから登録するまでの間にイベントを取りこぼさない
+    Observable<E> observeOnEdt(S source) {
+        return Observable.<E>create(emitter -> {
+            final Fanout<S, L, E> fanout = getFanout(source);
+            fanout.add(emitter);
+            emitter.setDisposable(Disposables.fromAction(() -> fanout.remove(emitter)));
+        })
+                .unsubscribeOn(SwingScheduler.getInstance());
+    }
+
+    private Fanout<S, L, E> getFanout(S source) {
+        final WeakReference<Fanout<S, L, E>> reference = fanouts.get(source);
+        Fanout<S, L, E> fanout = reference == null ? null : reference.get();
+        if (fanout == null) {
+            fanout = new Fanout<>(this, source);
+            fanouts.put(source, new WeakReference<>(fanout));
+        }
+        return fanout;
+    }
+
+    static class Fanout<S, L, E> {
+        private static final ObservableEmitter<?>[] EMPTY = new ObservableEmitter<?>[0];
+
+        private final SharedListener<S, L, E> owner;
+        private final S source;
+        private final L listener;
+        // 配信中に購読が増減しても、その時点の配列を最後まで辿れるようにコピーして差し替える
+        private ObservableEmitter<E>[] emitters = empty();
+
+        private Fanout(SharedListener<S, L, E> owner, S source) {
+            this.owner = owner;
+            this.source = source;
+            this.listener = owner.createListener(this);
+        }
+
+        // 空の配列は書き換えないので、型に関わらず共有する
+        @SuppressWarnings("unchecked")
+        private static <E> ObservableEmitter<E>[] empty() {
+            return (ObservableEmitter<E>[]) EMPTY;
+        }
+
+        void dispatch(E event) {
+            TraceRecorder.record(source, event);
+            for (ObservableEmitter<E> emitter : emitters) {
+                emitter.onNext(event);
+            }
+        }
+
+        private void add(ObservableEmitter<E> emitter) {
+            final int n = emitters.length;
+            if (n == 0) {
+                owner.addListener(source, listener);
+            }
+            final ObservableEmitter<E>[] next = Arrays.copyOf(emitters, n + 1);
+            next[n] = emitter;
+            emitters = next;
+        }
+
+        private void remove(ObservableEmitter<E> emitter) {
+            final int n = emitters.length;
+            for (int i = 0; i < n; i++) {
+                if (emitters[i] == emitter) {
+                    if (n == 1) {
+                        emitters = empty();
+                        owner.removeListener(source, listener);
+                        // 次の購読では作り直す
+                        owner.fanouts.remove(source);
+                        return;
+                    }
+                    final ObservableEmitter<E>[] next = Arrays.copyOf(emitters, n - 1);
+                    System.arraycopy(emitters, i + 1, next, i, n - i - 1);
+                    emitters = next;
+                    return;
+                }
+            }
+        }
+    }
+}
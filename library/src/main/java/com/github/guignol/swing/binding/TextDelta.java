@@ -0,0 +1,73 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.annotations.NonNull;
+import io.reactivex.annotations.Nullable;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+// Documentの変更差分。getText()で全体をコピーせず、変更された範囲だけを持つ
+public class TextDelta {
+
+    public enum Type {
+        INSERT,
+        REMOVE,
+        CHANGE
+    }
+
+    @NonNull
+    public final Type type;
+    public final int offset;
+    public final int length;
+    // INSERTの時だけ挿入された文字列
+    @Nullable
+    public final String text;
+
+    TextDelta(@NonNull Type type, int offset, int length, @Nullable String text) {
+        this.type = type;
+        this.offset = offset;
+        this.length = length;
+        this.text = text;
+    }
+
+    static TextDelta from(DocumentEvent event) {
+        final int offset = event.getOffset();
+        final int length = event.getLength();
+        if (event.getType() == DocumentEvent.EventType.INSERT) {
+            final Document document = event.getDocument();
+            try {
+                return new TextDelta(Type.INSERT, offset, length, document.getText(offset, length));
+            } catch (BadLocationException e) {
+                // リスナーの中ではDocumentは変更されないので起きないはず
+                throw new IllegalStateException(e);
+            }
+        } else if (event.getType() == DocumentEvent.EventType.REMOVE) {
+            return new TextDelta(Type.REMOVE, offset, length, null);
+        } else {
+            return new TextDelta(Type.CHANGE, offset, length, null);
+        }
+    }
+
+    // 変更前の文字列にこの差分を適用する
+    public String applyTo(String before) {
+        switch (type) {
+            case INSERT:
+                return before.substring(0, offset) + text + before.substring(offset);
+            case REMOVE:
+                return before.substring(0, offset) + before.substring(offset + length);
+            default:
+                return before;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TextDelta{" +
+                "type=" + type +
+                ", offset=" + offset +
+                ", length=" + length +
+                ", text='" + text + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,207 @@
+package com.github.guignol.swing.binding;
+
+import com.github.guignol.swing.cell.BooleanCell;
+import com.github.guignol.swing.cell.RefCell;
+import com.github.guignol.swing.rx.SwingScheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.text.Document;
+import javax.swing.text.JTextComponent;
+import java.awt.event.ItemListener;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * コンポーネントとセルを双方向に繋ぐ
+ * <p>
+ * onInputとtoViewで両方向を繋ぐと、setTextがDocumentListenerを呼び直し、入力のたびに値が往復する。
+ * ここでは書き込みがどちらから来たかを覚えておき、反映中に反対側から返ってくる反響は捨てる。
+ * ユーザーの入力1回につきセルの更新は1回で、コンポーネントへの書き戻しは起きない。
+ * ただしセルのリスナーが入力を直した(別の値を書き込んだ)場合は、入力の処理が終わってからその値をコンポーネントに反映する。
+ * 繋いだ時はセルの値をコンポーネントに反映する。EDTから呼ぶこと
+ */
+public class TwoWay {
+
+    private enum Origin {
+        VIEW,
+        MODEL
+    }
+
+    private TwoWay() {
+    }
+
+    public static Disposable text(JTextComponent textComponent, RefCell<String> cell) {
+        // DocumentListenerの中ではDocumentを変更できないので、入力中に直された値は後で反映する
+        final Link<String> link = new Link<>(Objects::equals, true, () -> {
+            final String value = cell.get();
+            // 同じ文字列を入れ直すとキャレットが飛ぶので、違う時だけ
+            if (!Objects.equals(value, textComponent.getText())) {
+                textComponent.setText(value);
+            }
+        });
+        final Document document = textComponent.getDocument();
+        final DocumentListener documentListener = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                update();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                update();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // 属性の変更では文字列は変わらない
+            }
+
+            private void update() {
+                link.fromView(textComponent.getText(), cell::set);
+            }
+        };
+        return link.connect(
+                () -> document.addDocumentListener(documentListener),
+                () -> document.removeDocumentListener(documentListener),
+                cell.addListener(link::fromModel));
+    }
+
+    public static Disposable selected(AbstractButton button, BooleanCell cell) {
+        final Link<Boolean> link = new Link<>(Objects::equals, false, () -> {
+            if (button.isSelected() != cell.get()) {
+                button.setSelected(cell.get());
+            }
+        });
+        // ChangeListenerはロールオーバーなどでも呼ばれるので、選択が変わった時だけ呼ばれるItemListenerを使う
+        final ItemListener itemListener = e -> link.fromView(button.isSelected(), cell::set);
+        return link.connect(
+                () -> button.addItemListener(itemListener),
+                () -> button.removeItemListener(itemListener),
+                cell.addListener(link::fromModel));
+    }
+
+    /**
+     * 選択中の行をセルと繋ぐ。選択を変えている途中(valueIsAdjusting)の値はセルに書き込まない
+     * <p>
+     * 配列はequalsで比べられないので、セルはnew RefCell&lt;&gt;(initial, Arrays::equals)のように作ること
+     */
+    public static Disposable selection(JList<?> list, RefCell<int[]> cell) {
+        final Link<int[]> link = new Link<>(Arrays::equals, false, () -> {
+            final int[] value = cell.get();
+            if (Arrays.equals(value, list.getSelectedIndices())) {
+                return;
+            }
+            // 選択し直す間にいくつも飛んでくるイベントは、全てこちらから起きたものとして捨てる
+            if (value == null || value.length == 0) {
+                list.clearSelection();
+            } else {
+                list.setSelectedIndices(value);
+            }
+        });
+        final ListSelectionListener selectionListener = e -> {
+            if (!e.getValueIsAdjusting()) {
+                link.fromView(list.getSelectedIndices(), cell::set);
+            }
+        };
+        return link.connect(
+                () -> list.addListSelectionListener(selectionListener),
+                () -> list.removeListSelectionListener(selectionListener),
+                cell.addListener(link::fromModel));
+    }
+
+    private static class Link<T> {
+        private final BiPredicate<T, T> same;
+        // セルの今の値をコンポーネントに反映する
+        private final Runnable apply;
+        // 入力中に直された値を、イベントの処理が終わってから反映するか
+        private final boolean later;
+        // 反映している最中の書き込みの出どころ
+        @Nullable
+        private Origin writing;
+        // コンポーネントからセルに書き込んでいる値
+        @Nullable
+        private T written;
+        // 書き込み中にセルが別の値に変わった
+        private boolean pending;
+        private boolean disposed;
+
+        Link(BiPredicate<T, T> same, boolean later, Runnable applyModel) {
+            this.same = same;
+            this.later = later;
+            this.apply = applyModel;
+        }
+
+        Disposable connect(Runnable addViewListener, Runnable removeViewListener, Disposable cellListener) {
+            applyModel();
+            addViewListener.run();
+            return Disposables.fromAction(() -> {
+                disposed = true;
+                removeViewListener.run();
+                cellListener.dispose();
+            });
+        }
+
+        void fromView(T value, Consumer<T> set) {
+            // セルの値を反映している最中なら、その反響
+            if (writing != null) {
+                return;
+            }
+            writing = Origin.VIEW;
+            written = value;
+            try {
+                set.accept(value);
+            } finally {
+                writing = null;
+                written = null;
+            }
+            if (pending) {
+                pending = false;
+                if (later) {
+                    // SwingSchedulerはEDTではその場で実行するので、キューの後ろに積んでリスナーを抜けてから反映する
+                    SwingScheduler.invokeLater(this::applyModel);
+                } else {
+                    applyModel();
+                }
+            }
+        }
+
+        void fromModel(T value) {
+            if (writing == Origin.VIEW) {
+                // 書き込んだ値がそのまま返ってきたのは反響なので捨て、別の値なら後で反映する
+                if (!same.test(value, written)) {
+                    pending = true;
+                }
+                return;
+            }
+            if (writing == Origin.MODEL) {
+                pending = true;
+                return;
+            }
+            applyModel();
+        }
+
+        private void applyModel() {
+            if (disposed) {
+                return;
+            }
+            writing = Origin.MODEL;
+            try {
+                apply.run();
+            } finally {
+                writing = null;
+            }
+            if (pending) {
+                pending = false;
+                applyModel();
+            }
+        }
+    }
+}
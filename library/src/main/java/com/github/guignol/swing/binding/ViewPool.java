@@ -0,0 +1,99 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.annotations.NonNull;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
+
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 種類ごとにViewを使い回すための、上限のあるプール
+ * <p>
+ * 開いては閉じるダイアログやポップアップのViewを毎回作らずに済む。
+ * releaseされたViewはrecycleしてから空きに戻し、空きが上限を超えた分は捨てる。
+ * EDTから使うこと。
+ */
+public class ViewPool<V extends Recyclable> {
+
+    private final int capacity;
+    private final Deque<V> idle = new ArrayDeque<>();
+    // 使用中のViewと、一緒に捨てるViewModel。コンポーネントから引く
+    private final Map<Component, InUse<V>> inUse = new IdentityHashMap<>();
+
+    private static class InUse<V> {
+        final V view;
+        @Nullable
+        final Object viewModel;
+
+        InUse(V view, @Nullable Object viewModel) {
+            this.view = view;
+            this.viewModel = viewModel;
+        }
+    }
+
+    public ViewPool(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity <= 0: " + capacity);
+        this.capacity = capacity;
+    }
+
+    // 空きがあれば使い回し、なければ作る
+    public V acquire(@NonNull Callable<V> factory) {
+        final V view = idle.pollFirst();
+        if (view != null) {
+            return view;
+        }
+        try {
+            return factory.call();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * bindし終えたViewを使用中として覚え、表示するコンポーネントを返す
+     *
+     * @param viewModel releaseの時、Disposableならdisposeする
+     */
+    public Component attach(@NonNull V view, @Nullable Object viewModel) {
+        final Component component = getComponent(view);
+        inUse.put(component, new InUse<>(view, viewModel));
+        return component;
+    }
+
+    /**
+     * @return attachしたコンポーネントでなければfalse
+     */
+    public boolean release(@NonNull Component component) {
+        final InUse<V> released = inUse.remove(component);
+        if (released == null) {
+            return false;
+        }
+        if (released.viewModel instanceof Disposable) {
+            ((Disposable) released.viewModel).dispose();
+        }
+        released.view.recycle();
+        if (idle.size() < capacity) {
+            idle.offerFirst(released.view);
+        } else if (released.view instanceof Disposable) {
+            ((Disposable) released.view).dispose();
+        }
+        return true;
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getInUseCount() {
+        return inUse.size();
+    }
+
+    private static Component getComponent(Object view) {
+        return view instanceof ComponentHolder ? ((ComponentHolder) view).getComponent() : (Component) view;
+    }
+}
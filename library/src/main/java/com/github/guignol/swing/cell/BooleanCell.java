@@ -0,0 +1,54 @@
+package com.github.guignol.swing.cell;
+
+import com.github.guignol.swing.binding.BindableViewModel;
+import io.reactivex.Observable;
+
+/**
+ * booleanの値を箱に入れずに持つ
+ * <p>
+ * ボタンの有効・無効のようなフラグ向け。値が変わった時だけ通知するので、
+ * 同じ状態を何度書き込んでもsetEnabledなどは呼ばれない
+ */
+public class BooleanCell extends Cell<BooleanCell.Listener> {
+
+    @FunctionalInterface
+    public interface Listener {
+        void onChanged(boolean value);
+    }
+
+    private boolean value;
+
+    public BooleanCell(boolean initial) {
+        this.value = initial;
+    }
+
+    public boolean get() {
+        return value;
+    }
+
+    public void set(boolean value) {
+        if (this.value == value) {
+            return;
+        }
+        this.value = value;
+        final int version = changed();
+        for (Object listener : listeners()) {
+            if (!notifiable(version)) {
+                return;
+            }
+            ((Listener) listener).onChanged(value);
+        }
+    }
+
+    public void toggle() {
+        set(!value);
+    }
+
+    public Observable<Boolean> asObservable() {
+        return observe(emitter -> emitter::onNext, this::get);
+    }
+
+    public BindableViewModel<Boolean> toBindable() {
+        return new BindableViewModel<>(asObservable());
+    }
+}
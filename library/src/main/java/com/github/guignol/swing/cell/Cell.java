@@ -0,0 +1,150 @@
+package com.github.guignol.swing.cell;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Function;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * 値を1つ持ち、変わった時だけリスナーに知らせる入れ物の共通部分
+ * <p>
+ * リスナーは書き込み時にコピーする配列で持つので、通知中に増減しても構わない。
+ * 通知中に値が書き換えられたら、残りのリスナーには古い値を流さない(新しい値の通知が済んでいるため)。
+ * 読み書きは1つのスレッドから行うこと。普通はEDT
+ */
+public abstract class Cell<L> {
+
+    private static final Object[] EMPTY = new Object[0];
+    private static final Derived<?>[] NO_DEPENDENTS = new Derived<?>[0];
+
+    private Object[] listeners = EMPTY;
+    // 監視されているDerivedのうち、このセルを直接参照しているもの
+    private Derived<?>[] dependents = NO_DEPENDENTS;
+    // 値が変わるたびに増やす
+    private int version;
+
+    Cell() {
+    }
+
+    public Disposable addListener(L listener) {
+        final boolean observed = isObserved();
+        listeners = append(listeners, listener);
+        if (!observed) {
+            observedChanged(true);
+        }
+        return Disposables.fromAction(() -> removeListener(listener));
+    }
+
+    public void removeListener(L listener) {
+        final Object[] next = remove(listeners, listener);
+        if (next == listeners) {
+            return;
+        }
+        listeners = next.length == 0 ? EMPTY : next;
+        if (!isObserved()) {
+            observedChanged(false);
+        }
+    }
+
+    public int getListenerCount() {
+        return listeners.length;
+    }
+
+    /**
+     * 値を書き換えた直後に呼ぶ。このセルから計算するDerivedを先に更新する
+     *
+     * @return notifiableで今の通知が古くなっていないかを確かめるのに使う
+     */
+    final int changed() {
+        final int version = ++this.version;
+        if (dependents.length > 0) {
+            Derived.propagate(dependents);
+        }
+        return version;
+    }
+
+    // Derivedを更新しない。Derivedは自分で伝播させる
+    final int bump() {
+        return ++version;
+    }
+
+    final int version() {
+        return version;
+    }
+
+    final boolean notifiable(int version) {
+        return this.version == version;
+    }
+
+    final Object[] listeners() {
+        return listeners;
+    }
+
+    // 依存の深さ。値を直接持つセルは0
+    int rank() {
+        return 0;
+    }
+
+    // リスナーか監視されたDerivedが付いた、または全て外れた
+    void observedChanged(boolean observed) {
+    }
+
+    final void addDependent(Derived<?> dependent) {
+        final boolean observed = isObserved();
+        dependents = append(dependents, dependent);
+        if (!observed) {
+            observedChanged(true);
+        }
+    }
+
+    final void removeDependent(Derived<?> dependent) {
+        final Derived<?>[] next = remove(dependents, dependent);
+        if (next == dependents) {
+            return;
+        }
+        dependents = next.length == 0 ? NO_DEPENDENTS : next;
+        if (!isObserved()) {
+            observedChanged(false);
+        }
+    }
+
+    final Derived<?>[] dependents() {
+        return dependents;
+    }
+
+    final boolean isObserved() {
+        return listeners.length != 0 || dependents.length != 0;
+    }
+
+    // 購読した時に今の値を流し、その後は変わるたびに流す
+    final <T> Observable<T> observe(Function<ObservableEmitter<T>, L> toListener, Callable<T> current) {
+        return Observable.create(emitter -> {
+            final L listener = toListener.apply(emitter);
+            emitter.setDisposable(addListener(listener));
+            emitter.onNext(current.call());
+        });
+    }
+
+    private static <A> A[] append(A[] array, A item) {
+        final A[] next = Arrays.copyOf(array, array.length + 1);
+        next[array.length] = item;
+        return next;
+    }
+
+    // 見つからなければ同じ配列を返す
+    private static <A> A[] remove(A[] array, A item) {
+        final int n = array.length;
+        for (int i = 0; i < n; i++) {
+            if (array[i] == item) {
+                final A[] next = Arrays.copyOf(array, n - 1);
+                System.arraycopy(array, i + 1, next, i, n - i - 1);
+                return next;
+            }
+        }
+        return array;
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.guignol.swing.cell;
+
+import com.github.guignol.swing.binding.BindableViewModel;
+import io.reactivex.Observable;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.BiPredicate;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+
+/**
+ * 他のセルから計算する値
+ * <p>
+ * 計算に使うセルはdependenciesで渡す。値は必要になるまで計算しない。
+ * <ul>
+ * <li>リスナーが付いていない間は依存先の変更を受け取らず、getされた時に依存先の版を見て、変わっていれば計算し直す</li>
+ * <li>リスナーが付いている間は、依存先が変わると浅い順(依存の深さの順)に1回ずつ計算し直し、値が変わった時だけ通知する</li>
+ * </ul>
+ * 計算の途中で読む他のDerivedは、読んだ時点で最新にしてから返すので、古い値と新しい値が混ざった状態は見えない。
+ * 例えばAから計算するBとCを、さらにDがまとめている場合でも、Aを1回変えればDの計算も通知も1回になる。
+ * computeから読むセルは全てdependenciesに含めること
+ */
+public class Derived<T> extends Cell<Derived.Listener<T>> {
+
+    @FunctionalInterface
+    public interface Listener<T> {
+        void onChanged(T value);
+    }
+
+    private static final Comparator<Derived<?>> BY_RANK = Comparator.comparingInt(Derived::rank);
+
+    private final Callable<T> compute;
+    private final BiPredicate<? super T, ? super T> comparer;
+    private final Cell<?>[] dependencies;
+    // 最後に計算した時の、依存先の版
+    private final int[] seenVersions;
+    private final int rank;
+    private boolean computed = false;
+    private T value;
+    // リスナーに最後に知らせた時の版
+    private int notifiedVersion;
+    private boolean queued = false;
+    private int computeCount = 0;
+
+    public static <T> Derived<T> of(@NonNull Callable<T> compute, Cell<?>... dependencies) {
+        return new Derived<>(compute, Objects::equals, dependencies);
+    }
+
+    public static <T> Derived<T> of(@NonNull Callable<T> compute,
+                                    @NonNull BiPredicate<? super T, ? super T> comparer,
+                                    Cell<?>... dependencies) {
+        return new Derived<>(compute, comparer, dependencies);
+    }
+
+    private Derived(Callable<T> compute, BiPredicate<? super T, ? super T> comparer, Cell<?>[] dependencies) {
+        this.compute = compute;
+        this.comparer = comparer;
+        this.dependencies = dependencies.clone();
+        this.seenVersions = new int[dependencies.length];
+        int rank = 0;
+        for (Cell<?> dependency : dependencies) {
+            rank = Math.max(rank, dependency.rank());
+        }
+        this.rank = rank + 1;
+    }
+
+    public T get() {
+        validate();
+        return value;
+    }
+
+    // 計算した回数。無駄な計算が起きていないかを確かめる時に
+    public int getComputeCount() {
+        return computeCount;
+    }
+
+    public Observable<T> asObservable() {
+        return observe(emitter -> emitter::onNext, this::get);
+    }
+
+    public BindableViewModel<T> toBindable() {
+        return new BindableViewModel<>(asObservable());
+    }
+
+    @Override
+    int rank() {
+        return rank;
+    }
+
+    @Override
+    void observedChanged(boolean observed) {
+        if (observed) {
+            // 付いた時点の値を基準にして、そこからの変化だけを知らせる
+            validate();
+            notifiedVersion = version();
+            for (Cell<?> dependency : dependencies) {
+                dependency.addDependent(this);
+            }
+        } else {
+            for (Cell<?> dependency : dependencies) {
+                dependency.removeDependent(this);
+            }
+        }
+    }
+
+    // 依存先のどれかが前回の計算から変わっていれば計算し直す
+    private void validate() {
+        boolean stale = !computed;
+        for (int i = 0; i < dependencies.length; i++) {
+            final Cell<?> dependency = dependencies[i];
+            if (dependency instanceof Derived) {
+                ((Derived<?>) dependency).validate();
+            }
+            if (dependency.version() != seenVersions[i]) {
+                stale = true;
+            }
+        }
+        if (!stale) {
+            return;
+        }
+        final T next;
+        final boolean same;
+        try {
+            computeCount++;
+            next = compute.call();
+            same = computed && comparer.test(value, next);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        // 失敗した時は、次に読まれた時にもう一度計算する
+        for (int i = 0; i < dependencies.length; i++) {
+            seenVersions[i] = dependencies[i].version();
+        }
+        if (same) {
+            return;
+        }
+        computed = true;
+        value = next;
+        bump();
+    }
+
+    // 監視されているDerivedを浅い順に1回ずつ更新する
+    static void propagate(Derived<?>[] roots) {
+        final PriorityQueue<Derived<?>> queue = new PriorityQueue<>(BY_RANK);
+        for (Derived<?> root : roots) {
+            root.enqueue(queue);
+        }
+        try {
+            while (!queue.isEmpty()) {
+                final Derived<?> derived = queue.poll();
+                derived.queued = false;
+                derived.refresh(queue);
+            }
+        } finally {
+            // 計算が例外で止まっても、残りが次の変更で更新されるように印を戻す
+            for (Derived<?> derived : queue) {
+                derived.queued = false;
+            }
+        }
+    }
+
+    private void enqueue(PriorityQueue<Derived<?>> queue) {
+        if (!queued) {
+            queued = true;
+            queue.add(this);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void refresh(PriorityQueue<Derived<?>> queue) {
+        validate();
+        // 浅いDerivedの計算中に読まれて、既に計算し直されていることもあるので、版で比べる
+        final int version = version();
+        if (version == notifiedVersion) {
+            return;
+        }
+        notifiedVersion = version;
+        for (Derived<?> dependent : dependents()) {
+            dependent.enqueue(queue);
+        }
+        final T value = this.value;
+        for (Object listener : listeners()) {
+            if (!notifiable(version)) {
+                return;
+            }
+            ((Listener<T>) listener).onChanged(value);
+        }
+    }
+}
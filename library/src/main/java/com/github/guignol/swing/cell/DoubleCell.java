@@ -0,0 +1,51 @@
+package com.github.guignol.swing.cell;
+
+import com.github.guignol.swing.binding.BindableViewModel;
+import io.reactivex.Observable;
+
+/**
+ * doubleの値を箱に入れずに持つ
+ * <p>
+ * 進捗率のように細かく変わる値向け。同じ値なら通知しないので、
+ * 表示したい粒度に丸めてから書き込むと、描画の回数も減らせる
+ */
+public class DoubleCell extends Cell<DoubleCell.Listener> {
+
+    @FunctionalInterface
+    public interface Listener {
+        void onChanged(double value);
+    }
+
+    private double value;
+
+    public DoubleCell(double initial) {
+        this.value = initial;
+    }
+
+    public double get() {
+        return value;
+    }
+
+    // NaN同士は同じ値、0.0と-0.0は違う値とみなす
+    public void set(double value) {
+        if (Double.doubleToLongBits(this.value) == Double.doubleToLongBits(value)) {
+            return;
+        }
+        this.value = value;
+        final int version = changed();
+        for (Object listener : listeners()) {
+            if (!notifiable(version)) {
+                return;
+            }
+            ((Listener) listener).onChanged(value);
+        }
+    }
+
+    public Observable<Double> asObservable() {
+        return observe(emitter -> emitter::onNext, this::get);
+    }
+
+    public BindableViewModel<Double> toBindable() {
+        return new BindableViewModel<>(asObservable());
+    }
+}
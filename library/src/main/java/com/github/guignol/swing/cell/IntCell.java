@@ -0,0 +1,55 @@
+package com.github.guignol.swing.cell;
+
+import com.github.guignol.swing.binding.BindableViewModel;
+import io.reactivex.Observable;
+
+/**
+ * intの値を箱に入れずに持つ
+ * <p>
+ * 同じ値を書き込んでも通知せず、リスナーへの通知ではオブジェクトを作らない。
+ * 件数やカウンターのように頻繁に変わる値をViewModelに持たせる時に使う。
+ * asObservableは値を箱に入れるので、BindableViewModelに繋ぐ必要がある時だけ使うこと
+ */
+public class IntCell extends Cell<IntCell.Listener> {
+
+    @FunctionalInterface
+    public interface Listener {
+        void onChanged(int value);
+    }
+
+    private int value;
+
+    public IntCell(int initial) {
+        this.value = initial;
+    }
+
+    public int get() {
+        return value;
+    }
+
+    public void set(int value) {
+        if (this.value == value) {
+            return;
+        }
+        this.value = value;
+        final int version = changed();
+        for (Object listener : listeners()) {
+            if (!notifiable(version)) {
+                return;
+            }
+            ((Listener) listener).onChanged(value);
+        }
+    }
+
+    public void add(int delta) {
+        set(value + delta);
+    }
+
+    public Observable<Integer> asObservable() {
+        return observe(emitter -> emitter::onNext, this::get);
+    }
+
+    public BindableViewModel<Integer> toBindable() {
+        return new BindableViewModel<>(asObservable());
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.guignol.swing.cell;
+
+import com.github.guignol.swing.binding.BindableViewModel;
+import io.reactivex.Observable;
+
+/**
+ * longの値を箱に入れずに持つ
+ * <p>
+ * 転送したバイト数や経過時間など、intに収まらない値を扱う他はIntCellと同じ
+ */
+public class LongCell extends Cell<LongCell.Listener> {
+
+    @FunctionalInterface
+    public interface Listener {
+        void onChanged(long value);
+    }
+
+    private long value;
+
+    public LongCell(long initial) {
+        this.value = initial;
+    }
+
+    public long get() {
+        return value;
+    }
+
+    public void set(long value) {
+        if (this.value == value) {
+            return;
+        }
+        this.value = value;
+        final int version = changed();
+        for (Object listener : listeners()) {
+            if (!notifiable(version)) {
+                return;
+            }
+            ((Listener) listener).onChanged(value);
+        }
+    }
+
+    public void add(long delta) {
+        set(value + delta);
+    }
+
+    public Observable<Long> asObservable() {
+        return observe(emitter -> emitter::onNext, this::get);
+    }
+
+    public BindableViewModel<Long> toBindable() {
+        return new BindableViewModel<>(asObservable());
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.guignol.swing.cell;
+
+import com.github.guignol.swing.binding.BindableViewModel;
+import io.reactivex.Observable;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.BiPredicate;
+
+import java.util.Objects;
+
+/**
+ * 参照型の値を持つ
+ * <p>
+ * 同じかどうかは既定ではequalsで比べる。大きなリストなどで比較が重い場合は、同一性などの比較を渡す。
+ * Observableで流す時はnullを流せないので、nullを持たせるならリスナーで受けること
+ */
+public class RefCell<T> extends Cell<RefCell.Listener<T>> {
+
+    @FunctionalInterface
+    public interface Listener<T> {
+        void onChanged(T value);
+    }
+
+    private final BiPredicate<? super T, ? super T> comparer;
+    private T value;
+
+    public RefCell(T initial) {
+        this(initial, Objects::equals);
+    }
+
+    public RefCell(T initial, @NonNull BiPredicate<? super T, ? super T> comparer) {
+        this.value = initial;
+        this.comparer = comparer;
+    }
+
+    public T get() {
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void set(T value) {
+        try {
+            if (comparer.test(this.value, value)) {
+                return;
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        this.value = value;
+        final int version = changed();
+        for (Object listener : listeners()) {
+            if (!notifiable(version)) {
+                return;
+            }
+            ((Listener<T>) listener).onChanged(value);
+        }
+    }
+
+    public Observable<T> asObservable() {
+        return observe(emitter -> emitter::onNext, this::get);
+    }
+
+    public BindableViewModel<T> toBindable() {
+        return new BindableViewModel<>(asObservable());
+    }
+}
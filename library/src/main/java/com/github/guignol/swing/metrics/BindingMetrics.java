@@ -0,0 +1,239 @@
+package com.github.guignol.swing.metrics;
+
+import io.reactivex.functions.Consumer;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.swing.*;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * バインディングごとの発火回数、EDTの待ち時間、ハンドラーの実行時間を記録する
+ * <p>
+ * 既定では無効で、無効の間はラップもせず計測のコストはかからない。
+ * 有効にした後に購読したバインディングだけが対象になる。
+ * SwingScheduler経由でEDTに渡ったタスクは、キューに積まれてから実行されるまでの時間も記録し、
+ * その中で動いたバインディングの待ち時間として数える。
+ * スケジューラー自体の待ち時間と実行時間は、バインディングとは別にスケジューラーの名前で記録する。
+ */
+public class BindingMetrics {
+
+    public static final String OBJECT_NAME = "com.github.guignol.swing:type=BindingMetrics";
+
+    public interface Listener {
+        void onEmission(BindingStats stats, long queueWaitNanos, long handlerNanos);
+    }
+
+    private static volatile boolean enabled = false;
+    private static volatile Listener[] listeners = new Listener[0];
+    private static final ConcurrentMap<String, BindingStats> STATS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, BindingStats> SCHEDULER_STATS = new ConcurrentHashMap<>();
+    // EDTで実行中のスケジューラーのタスクが、キューで待っていた時間。EDTからだけ触る
+    private static long currentQueueWait = -1;
+
+    private BindingMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        BindingMetrics.enabled = enabled;
+    }
+
+    public static synchronized void addListener(Listener listener) {
+        final Listener[] next = Arrays.copyOf(listeners, listeners.length + 1);
+        next[listeners.length] = listener;
+        listeners = next;
+    }
+
+    public static synchronized void removeListener(Listener listener) {
+        listeners = Arrays.stream(listeners).filter(it -> it != listener).toArray(Listener[]::new);
+    }
+
+    public static Collection<BindingStats> getStats() {
+        return Collections.unmodifiableCollection(STATS.values());
+    }
+
+    public static BindingStats getStats(String name) {
+        return STATS.computeIfAbsent(name, BindingStats::new);
+    }
+
+    // スケジューラーがEDTに渡したタスクの統計。バインディングの統計には含めない
+    public static Collection<BindingStats> getSchedulerStats() {
+        return Collections.unmodifiableCollection(SCHEDULER_STATS.values());
+    }
+
+    public static BindingStats getSchedulerStats(String scheduler) {
+        return SCHEDULER_STATS.computeIfAbsent(scheduler, BindingStats::new);
+    }
+
+    public static void reset() {
+        for (BindingStats stats : STATS.values()) {
+            stats.reset();
+        }
+        for (BindingStats stats : SCHEDULER_STATS.values()) {
+            stats.reset();
+        }
+    }
+
+    public static void registerMBean() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new MXBean(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+            // 登録済み
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 有効な時だけ、ハンドラーの実行を計測するConsumerでラップする
+     *
+     * @param name nullなら購読した場所のクラスと行番号
+     */
+    public static <T> Consumer<T> instrument(String name, Consumer<T> onNext) {
+        if (!enabled) {
+            return onNext;
+        }
+        final BindingStats stats = getStats(name != null ? name : callerName());
+        return value -> {
+            final long queueWait = SwingUtilities.isEventDispatchThread() ? currentQueueWait : -1;
+            final long start = System.nanoTime();
+            try {
+                onNext.accept(value);
+            } finally {
+                final long handler = System.nanoTime() - start;
+                stats.record(queueWait, handler);
+                for (Listener listener : listeners) {
+                    listener.onEmission(stats, queueWait, handler);
+                }
+            }
+        };
+    }
+
+    /**
+     * 有効な時だけ、EDTに渡すタスクをキューでの待ち時間を計測するRunnableでラップする。EDTに積む直前に呼ぶこと
+     *
+     * @param scheduler 待ち時間を記録する名前
+     */
+    public static Runnable instrumentTask(String scheduler, Runnable task) {
+        if (!enabled) {
+            return task;
+        }
+        final BindingStats stats = getSchedulerStats(scheduler);
+        final long enqueued = System.nanoTime();
+        return () -> {
+            final long start = System.nanoTime();
+            final long queueWait = start - enqueued;
+            final long previous = currentQueueWait;
+            currentQueueWait = queueWait;
+            try {
+                task.run();
+            } finally {
+                currentQueueWait = previous;
+                stats.record(queueWait, System.nanoTime() - start);
+            }
+        };
+    }
+
+    // スタックトレースからライブラリとRxJavaの外で最初に見つかった場所
+    private static String callerName() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            final String className = element.getClassName();
+            if (!className.startsWith("com.github.guignol.swing.")
+                    && !className.startsWith("io.reactivex.")
+                    && !className.startsWith("java.")) {
+                return element.getClassName() + "." + element.getMethodName() + ":" + element.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+
+    private static class MXBean implements BindingMetricsMXBean {
+
+        private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+        @Override
+        public boolean isEnabled() {
+            return BindingMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            BindingMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public String[] getBindingNames() {
+            return STATS.keySet().stream().sorted().toArray(String[]::new);
+        }
+
+        @Override
+        public long getEmissionCount(String binding) {
+            final BindingStats stats = STATS.get(binding);
+            return stats == null ? 0 : stats.getEmissionCount();
+        }
+
+        @Override
+        public double getHandlerTimeMillis(String binding, double percentile) {
+            final BindingStats stats = STATS.get(binding);
+            return stats == null ? 0 : stats.getHandlerTime().getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public double getMaxHandlerTimeMillis(String binding) {
+            final BindingStats stats = STATS.get(binding);
+            return stats == null ? 0 : stats.getHandlerTime().getMax() / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public double getQueueWaitMillis(String binding, double percentile) {
+            final BindingStats stats = STATS.get(binding);
+            return stats == null ? 0 : stats.getQueueWait().getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public double getMaxQueueWaitMillis(String binding) {
+            final BindingStats stats = STATS.get(binding);
+            return stats == null ? 0 : stats.getQueueWait().getMax() / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public String[] getSchedulerNames() {
+            return SCHEDULER_STATS.keySet().stream().sorted().toArray(String[]::new);
+        }
+
+        @Override
+        public long getSchedulerTaskCount(String scheduler) {
+            final BindingStats stats = SCHEDULER_STATS.get(scheduler);
+            return stats == null ? 0 : stats.getEmissionCount();
+        }
+
+        @Override
+        public double getSchedulerQueueWaitMillis(String scheduler, double percentile) {
+            final BindingStats stats = SCHEDULER_STATS.get(scheduler);
+            return stats == null ? 0 : stats.getQueueWait().getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public double getMaxSchedulerQueueWaitMillis(String scheduler) {
+            final BindingStats stats = SCHEDULER_STATS.get(scheduler);
+            return stats == null ? 0 : stats.getQueueWait().getMax() / NANOS_PER_MILLI;
+        }
+
+        @Override
+        public void reset() {
+            BindingMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.guignol.swing.metrics;
+
+// JConsoleなどから見るためのMXBean。時間はミリ秒
+public interface BindingMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    String[] getBindingNames();
+
+    long getEmissionCount(String binding);
+
+    double getHandlerTimeMillis(String binding, double percentile);
+
+    double getMaxHandlerTimeMillis(String binding);
+
+    double getQueueWaitMillis(String binding, double percentile);
+
+    double getMaxQueueWaitMillis(String binding);
+
+    // SwingScheduler、TimerWheel、CoalescingSwingSchedulerがEDTに渡したタスク
+    String[] getSchedulerNames();
+
+    long getSchedulerTaskCount(String scheduler);
+
+    double getSchedulerQueueWaitMillis(String scheduler, double percentile);
+
+    double getMaxSchedulerQueueWaitMillis(String scheduler);
+
+    void reset();
+}
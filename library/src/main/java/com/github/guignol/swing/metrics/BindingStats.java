@@ -0,0 +1,48 @@
+package com.github.guignol.swing.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// バインディング1つ分の計測値。時間はナノ秒
+public class BindingStats {
+
+    private final String name;
+    private final LongAdder emissions = new LongAdder();
+    private final Histogram queueWait = new Histogram();
+    private final Histogram handlerTime = new Histogram();
+
+    BindingStats(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getEmissionCount() {
+        return emissions.sum();
+    }
+
+    // SwingSchedulerに積まれてからEDTで実行されるまで
+    public Histogram getQueueWait() {
+        return queueWait;
+    }
+
+    // ハンドラーの実行時間
+    public Histogram getHandlerTime() {
+        return handlerTime;
+    }
+
+    void record(long queueWaitNanos, long handlerNanos) {
+        emissions.increment();
+        if (0 <= queueWaitNanos) {
+            queueWait.record(queueWaitNanos);
+        }
+        handlerTime.record(handlerNanos);
+    }
+
+    void reset() {
+        emissions.reset();
+        queueWait.reset();
+        handlerTime.reset();
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.guignol.swing.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HdrHistogramと同じ考え方の、対数+線形のバケットを持つヒストグラム
+ * <p>
+ * 32未満はそのままの値で、それ以上は2のべき乗ごとに16分割したバケットに数える。相対誤差は1/16以下。
+ * 記録はロックも割り当てもなく、複数スレッドから呼べる。
+ */
+public class Histogram {
+
+    private static final int LINEAR = 32;
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BITS = 4;
+    // 最上位ビットが62の値まで
+    private static final int SIZE = LINEAR + (62 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SIZE);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // 他のスレッドに更新されたのでやり直す
+        }
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        final long count = total.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * @param percentile 0〜100
+     * @return その順位の値が入っているバケットの上限
+     */
+    public long getValueAtPercentile(double percentile) {
+        final long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < SIZE; i++) {
+            seen += counts.get(i);
+            if (rank <= seen) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < SIZE; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        final int msb = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = msb - SUB_BITS;
+        // valueの上位5ビットは16〜31
+        final int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        final int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        final long sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
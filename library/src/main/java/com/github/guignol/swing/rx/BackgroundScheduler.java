@@ -0,0 +1,83 @@
+package com.github.guignol.swing.rx;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ViewModelの重い計算をEDTの外で行うためのScheduler
+ * <p>
+ * 仮想スレッドが使えるJDKでは仮想スレッドで、それ以外ではCPU数のデーモンスレッドで実行する。
+ * Schedulers.computation()と分けておくことで、アプリ側の計算と取り合わないようにする。
+ */
+public class BackgroundScheduler {
+
+    private static final String NAME = "SwingBinding-Background";
+
+    private static class Holder {
+        private static final Scheduler INSTANCE = Schedulers.from(createExecutor());
+    }
+
+    private BackgroundScheduler() {
+    }
+
+    public static Scheduler getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 最新の値だけをschedulerで計算し、結果をEDTに流す
+     * <p>
+     * 計算中に新しい値が来たら古い計算の結果やエラーは捨てる。古い計算を止めるのは、schedulerがdisposeでスレッドに割り込む場合
+     * (BackgroundSchedulerのようにExecutorServiceから作ったもの)の割り込みだけで、割り込みを見ない計算は終わるまでスレッドを使い続ける。
+     * 計算が失敗したらその値の結果は流さずRxJavaPlugins.onErrorに渡し、次の値からはまた計算する。computeはnullを返さないこと
+     */
+    public static <T, R> ObservableTransformer<T, R> computeLatest(Scheduler scheduler, Function<T, R> compute) {
+        return upstream -> upstream
+                .switchMap(value -> Observable.<R>create(emitter -> {
+                    final R result;
+                    try {
+                        result = compute.apply(value);
+                    } catch (Throwable e) {
+                        // 捨てられた計算の例外は、どこにも届けない
+                        emitter.tryOnError(e);
+                        return;
+                    }
+                    emitter.onNext(result);
+                    emitter.onComplete();
+                }).subscribeOn(scheduler)
+                        // 1回の失敗でバインディングごと止めない
+                        .onErrorResumeNext((Throwable e) -> {
+                            RxJavaPlugins.onError(e);
+                            return Observable.empty();
+                        }))
+                .observeOn(SwingScheduler.getInstance());
+    }
+
+    // Java 8でもビルドできるよう、仮想スレッドはリフレクションで探す
+    private static ExecutorService createExecutor() {
+        try {
+            final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+        }
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final AtomicInteger count = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, NAME + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.guignol.swing.rx;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+
+/**
+ * Observableのイベントを、遅い購読者に対してどう扱うか
+ * <p>
+ * PropertyのイベントはObservableなので、observeOnで別スレッドに渡すと処理が追いつかない分が無制限に溜まる。
+ * Flowableにして、溜める量に上限をつける。
+ */
+public class Backpressure {
+
+    private enum Strategy {
+        LATEST,
+        DROP,
+        BUFFER
+    }
+
+    private static final Backpressure LATEST = new Backpressure(Strategy.LATEST, 0);
+    private static final Backpressure DROP = new Backpressure(Strategy.DROP, 0);
+
+    private final Strategy strategy;
+    private final int capacity;
+
+    private Backpressure(Strategy strategy, int capacity) {
+        this.strategy = strategy;
+        this.capacity = capacity;
+    }
+
+    // 追いつかない間は最新の1つだけ残す。ホバーやスクロール位置など
+    public static Backpressure latest() {
+        return LATEST;
+    }
+
+    // 追いつかない間に来たものは捨てる
+    public static Backpressure drop() {
+        return DROP;
+    }
+
+    // capacityまでは溜め、超えたらMissingBackpressureExceptionで終わる。1つも落とせない入力など
+    public static Backpressure buffer(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity <= 0: " + capacity);
+        return new Backpressure(Strategy.BUFFER, capacity);
+    }
+
+    public <T> Flowable<T> apply(Observable<T> source) {
+        switch (strategy) {
+            case LATEST:
+                return source.toFlowable(BackpressureStrategy.LATEST);
+            case DROP:
+                return source.toFlowable(BackpressureStrategy.DROP);
+            default:
+                return source.toFlowable(BackpressureStrategy.MISSING).onBackpressureBuffer(capacity);
+        }
+    }
+
+    // schedulerに渡すまでの間も1つしか持たないので、溜まるのはこの戦略の分だけになる
+    public <T> Flowable<T> observeOn(Observable<T> source, Scheduler scheduler) {
+        return apply(source).observeOn(scheduler, false, 1);
+    }
+
+    @Override
+    public String toString() {
+        return strategy == Strategy.BUFFER ? "BUFFER(" + capacity + ")" : strategy.toString();
+    }
+}
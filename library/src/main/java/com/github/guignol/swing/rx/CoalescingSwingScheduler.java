@@ -0,0 +1,143 @@
+package com.github.guignol.swing.rx;
+
+import com.github.guignol.swing.metrics.BindingMetrics;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import javax.swing.*;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * EDT外から積まれたタスクをキューに溜めて、1回のinvokeLaterでまとめて実行するScheduler
+ * <p>
+ * SwingSchedulerはタスクごとにinvokeLaterするので、バックグラウンドから大量に流すとEventQueueが埋まって描画や入力が止まる。
+ * 1回の実行で処理する件数と時間には上限があり、超えた分は次のinvokeLaterに回す。
+ */
+public class CoalescingSwingScheduler extends Scheduler {
+
+    private static final String NAME = "CoalescingSwingScheduler";
+    private static final CoalescingSwingScheduler INSTANCE =
+            new CoalescingSwingScheduler(1024, TimeUnit.MILLISECONDS.toNanos(8));
+
+    public static CoalescingSwingScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    public static CoalescingSwingScheduler create(int maxTasksPerDrain, long maxTimePerDrain, TimeUnit unit) {
+        if (maxTasksPerDrain <= 0) {
+            throw new IllegalArgumentException("maxTasksPerDrain > 0 required but it was " + maxTasksPerDrain);
+        }
+        if (unit == null) throw new NullPointerException("unit == null");
+        final long maxNanos = unit.toNanos(maxTimePerDrain);
+        if (maxNanos <= 0) {
+            throw new IllegalArgumentException("maxTimePerDrain > 0 required but it was " + maxTimePerDrain);
+        }
+        return new CoalescingSwingScheduler(maxTasksPerDrain, maxNanos);
+    }
+
+    // 複数のプロデューサーから積まれ、EDTだけが取り出す
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Runnable drain = this::drain;
+    private final int maxTasksPerDrain;
+    private final long maxNanosPerDrain;
+
+    private CoalescingSwingScheduler(int maxTasksPerDrain, long maxNanosPerDrain) {
+        this.maxTasksPerDrain = maxTasksPerDrain;
+        this.maxNanosPerDrain = maxNanosPerDrain;
+    }
+
+    @Override
+    public Worker createWorker() {
+        // SwingSchedulerが差し替えられていれば、それに従う
+        final Scheduler override = SwingScheduler.getOverride();
+        return override != null ? override.createWorker() : new CoalescingWorker(this);
+    }
+
+    void enqueue(Runnable task) {
+        queue.offer(BindingMetrics.instrumentTask(NAME, task));
+        if (wip.getAndIncrement() == 0) {
+            SwingUtilities.invokeLater(drain);
+        }
+    }
+
+    private void drain() {
+        final long start = System.nanoTime();
+        int count = 0;
+        int missed = wip.get();
+        for (; ; ) {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    RxJavaPlugins.onError(e);
+                }
+                if (++count >= maxTasksPerDrain || System.nanoTime() - start >= maxNanosPerDrain) {
+                    // 予算切れ。wipは0に戻していないので、プロデューサーが重複してinvokeLaterすることはない
+                    SwingUtilities.invokeLater(drain);
+                    return;
+                }
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private static class CoalescingWorker extends Worker {
+
+        private final CompositeDisposable composite = new CompositeDisposable();
+        private final CoalescingSwingScheduler scheduler;
+
+        CoalescingWorker(CoalescingSwingScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Disposable schedule(Runnable original, long delayTime, TimeUnit unit) {
+            if (original == null) throw new NullPointerException("run == null");
+            if (unit == null) throw new NullPointerException("unit == null");
+
+            final long delay = Math.max(0, unit.toMillis(delayTime));
+
+            final Disposable local;
+            if (delay == 0) {
+                local = Disposables.empty();
+                if (SwingUtilities.isEventDispatchThread()) {
+                    // 即時実行
+                    original.run();
+                } else {
+                    scheduler.enqueue(() -> {
+                        if (composite.isDisposed() || local.isDisposed()) {
+                            return;
+                        }
+                        original.run();
+                        composite.remove(local);
+                    });
+                }
+            } else {
+                local = SwingScheduler.scheduleDelayed(original, delay, composite);
+            }
+            composite.add(local);
+            return local;
+        }
+
+        @Override
+        public void dispose() {
+            composite.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return composite.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.guignol.swing.rx;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 1フレームの間に流れた値のうち最新のものだけを、次のフレームでEDTに流す
+ * <p>
+ * ドラッグやスクロール中のリサイズ・移動・ホバーは1フレームに何十回も発火するので、
+ * 後段の重い処理はフレームごとに1回で十分なものが多い。
+ * 全ての購読で1つのフレームを共有するので、同じフレームに溜まった値はまとめて1回のEDTタスクで流れる。
+ */
+public class Conflation {
+
+    public static final long FRAME_MILLIS = 16;
+
+    private static final Frame FRAME = new Frame();
+
+    private Conflation() {
+    }
+
+    public static <T> ObservableTransformer<T, T> perFrame() {
+        return upstream -> Observable.create(emitter -> {
+            final Slot<T> slot = new Slot<>(emitter.serialize());
+            final Disposable upstreamDisposable = upstream.subscribe(slot::offer, slot::error, slot::complete);
+            emitter.setDisposable(Disposables.fromAction(() -> {
+                upstreamDisposable.dispose();
+                slot.latest.set(null);
+            }));
+        });
+    }
+
+    private static class Frame {
+        private final Queue<Slot<?>> queued = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger();
+
+        void request(Slot<?> slot) {
+            queued.offer(slot);
+            if (count.getAndIncrement() == 0) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            SwingScheduler.getInstance().scheduleDirect(this::pulse, FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        private void pulse() {
+            // 配信中に積まれた分は次のフレームに回す
+            final int n = count.get();
+            for (int i = 0; i < n; i++) {
+                final Slot<?> slot = queued.poll();
+                if (slot != null) {
+                    slot.deliver();
+                }
+            }
+            if (count.addAndGet(-n) != 0) {
+                schedule();
+            }
+        }
+    }
+
+    private static class Slot<T> {
+        private final ObservableEmitter<T> emitter;
+        private final AtomicReference<T> latest = new AtomicReference<>();
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private volatile boolean done;
+        // doneより先に書く
+        private Throwable error;
+
+        Slot(ObservableEmitter<T> emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(T value) {
+            latest.set(value);
+            if (queued.compareAndSet(false, true)) {
+                FRAME.request(this);
+            }
+        }
+
+        void complete() {
+            done = true;
+            if (queued.compareAndSet(false, true)) {
+                FRAME.request(this);
+            }
+        }
+
+        // 完了と同じく、溜まっている最新の値を流してからEDTで通知する
+        void error(Throwable e) {
+            error = e;
+            complete();
+        }
+
+        void deliver() {
+            queued.set(false);
+            if (emitter.isDisposed()) {
+                return;
+            }
+            final T value = latest.getAndSet(null);
+            if (value != null) {
+                emitter.onNext(value);
+            }
+            if (done) {
+                final Throwable error = this.error;
+                if (error != null) {
+                    emitter.onError(error);
+                } else {
+                    emitter.onComplete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.guignol.swing.rx;
+
+import io.reactivex.Completable;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大きな更新を小さな手順に分けて、1回あたりの時間を制限しながらEDTで実行する
+ * <p>
+ * 時間を使い切ったら残りはinvokeLaterで後ろに回すので、その間に描画や入力のイベントが処理される。
+ * disposeされたら次の手順からは実行しない。
+ */
+public class EdtSlices {
+
+    public static final long DEFAULT_BUDGET_MILLIS = 8;
+
+    private EdtSlices() {
+    }
+
+    public static Completable run(Iterator<? extends Runnable> steps) {
+        return run(steps, DEFAULT_BUDGET_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static Completable run(Iterator<? extends Runnable> steps, long budget, TimeUnit unit) {
+        if (steps == null) throw new NullPointerException("steps == null");
+        if (unit == null) throw new NullPointerException("unit == null");
+        final long budgetNanos = unit.toNanos(budget);
+        return Completable.create(emitter -> SwingScheduler.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                final long start = System.nanoTime();
+                try {
+                    while (!emitter.isDisposed() && steps.hasNext()) {
+                        steps.next().run();
+                        if (System.nanoTime() - start >= budgetNanos && steps.hasNext()) {
+                            // SwingSchedulerはEDT上だと即時実行するので、直接キューの後ろに積む
+                            SwingScheduler.invokeLater(this);
+                            return;
+                        }
+                    }
+                } catch (Throwable e) {
+                    emitter.onError(e);
+                    return;
+                }
+                emitter.onComplete();
+            }
+        }));
+    }
+}
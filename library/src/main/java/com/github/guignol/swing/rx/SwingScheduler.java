@@ -1,6 +1,9 @@
 package com.github.guignol.swing.rx;
 
+import com.github.guignol.swing.metrics.BindingMetrics;
 import io.reactivex.Scheduler;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.annotations.Nullable;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.disposables.Disposables;
@@ -27,14 +30,49 @@ import java.util.concurrent.TimeUnit;
 public class SwingScheduler extends Scheduler {
 
     private static final SwingScheduler INSTANCE = new SwingScheduler();
+    private static final String NAME = "SwingScheduler";
 
     public static SwingScheduler getInstance() {
         return INSTANCE;
     }
 
+    // テストなどでEDTの代わりに使うScheduler
+    @Nullable
+    private static volatile Scheduler override;
+
     private SwingScheduler() {
     }
 
+    /**
+     * 以降に作られるWorkerと、EDTへの投入を全てschedulerに向ける。nullで元に戻す
+     * <p>
+     * VirtualEdtSchedulerを渡せば、PropertyやBindableの流れを仮想時間で決定的に動かせる
+     */
+    public static void setOverride(@Nullable Scheduler scheduler) {
+        override = scheduler;
+    }
+
+    @Nullable
+    static Scheduler getOverride() {
+        return override;
+    }
+
+    // EDTのキューの後ろに積む。EDTから呼んでもその場では実行しない。差し替えられていればそのSchedulerに積む
+    public static void invokeLater(Runnable run) {
+        final Scheduler scheduler = override;
+        if (scheduler != null) {
+            scheduler.scheduleDirect(run);
+        } else {
+            SwingUtilities.invokeLater(run);
+        }
+    }
+
+    @Override
+    public long now(@NonNull TimeUnit unit) {
+        final Scheduler scheduler = override;
+        return scheduler != null ? scheduler.now(unit) : super.now(unit);
+    }
+
     @Override
     public Disposable scheduleDirect(Runnable run) {
         // TODO RxAndroidは何故これをオーバーライドしてるのか
@@ -44,7 +82,8 @@ public class SwingScheduler extends Scheduler {
 
     @Override
     public Worker createWorker() {
-        return new InnerSwingScheduler();
+        final Scheduler scheduler = override;
+        return scheduler != null ? scheduler.createWorker() : new InnerSwingScheduler();
     }
 
     private static class InnerSwingScheduler extends Worker {
@@ -57,7 +96,6 @@ public class SwingScheduler extends Scheduler {
             if (unit == null) throw new NullPointerException("unit == null");
 
             final long delay = Math.max(0, unit.toMillis(delayTime));
-            assertThatTheDelayIsValidForTheSwingTimer(delay);
 
             final Disposable local;
             if (delay == 0) {
@@ -66,26 +104,16 @@ public class SwingScheduler extends Scheduler {
                     // 即時実行
                     original.run();
                 } else {
-                    SwingUtilities.invokeLater(() -> {
+                    SwingUtilities.invokeLater(BindingMetrics.instrumentTask(NAME, () -> {
                         if (composite.isDisposed() || local.isDisposed()) {
                             return;
                         }
                         original.run();
                         composite.remove(local);
-                    });
+                    }));
                 }
             } else {
-                final Timer timer = new Timer((int) delay, null);
-                local = Disposables.fromRunnable(timer::stop);
-                timer.setRepeats(false);
-                timer.addActionListener(e -> {
-                    if (composite.isDisposed() || local.isDisposed()) {
-                        return;
-                    }
-                    original.run();
-                    composite.remove(local);
-                });
-                timer.start();
+                local = scheduleDelayed(original, delay, composite);
             }
             composite.add(local);
 
@@ -103,11 +131,48 @@ public class SwingScheduler extends Scheduler {
         public boolean isDisposed() {
             return composite.isDisposed();
         }
+    }
+
+    static Disposable scheduleDelayed(Runnable original, long delay, CompositeDisposable composite) {
+        // javax.swing.Timerをタスクごとに作らず、共有のTimerWheelに載せる
+        // 実行したときもキャンセルしたときもcompositeから外れるように、Timeoutではなくtask自体を返す
+        final DelayedTask task = new DelayedTask(original, composite);
+        task.local = TimerWheel.getInstance().schedule(task, delay, TimeUnit.MILLISECONDS);
+        return task;
+    }
+
+    private static class DelayedTask implements Runnable, Disposable {
+        private final Runnable original;
+        private final CompositeDisposable composite;
+        volatile Disposable local;
+
+        DelayedTask(Runnable original, CompositeDisposable composite) {
+            this.original = original;
+            this.composite = composite;
+        }
+
+        @Override
+        public void run() {
+            if (composite.isDisposed()) {
+                return;
+            }
+            original.run();
+            composite.delete(this);
+        }
 
-        private static void assertThatTheDelayIsValidForTheSwingTimer(long delay) {
-            if (delay < 0 || delay > Integer.MAX_VALUE) {
-                throw new IllegalArgumentException(String.format("The swing timer only accepts non-negative delays up to %d milliseconds.", Integer.MAX_VALUE));
+        @Override
+        public void dispose() {
+            final Disposable local = this.local;
+            if (local != null) {
+                local.dispose();
             }
+            composite.delete(this);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            final Disposable local = this.local;
+            return local != null && local.isDisposed();
         }
     }
 }
@@ -0,0 +1,276 @@
+package com.github.guignol.swing.rx;
+
+import com.github.guignol.swing.metrics.BindingMetrics;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 遅延タスク用のハッシュドタイマーホイール
+ * <p>
+ * javax.swing.Timerをタスクごとに作るとdebounceやthrottleでキー入力のたびにTimerQueueへの登録と解除が走るので、
+ * 1本のデーモンスレッドでtickを刻み、期限切れのタスクをtickごとにまとめてEDTへ渡す。
+ * 登録とキャンセルはキューに積むだけで、バケットの操作はtickスレッドだけが行う。
+ * <p>
+ * Netty HashedWheelTimer
+ * https://github.com/netty/netty/blob/4.1/common/src/main/java/io/netty/util/HashedWheelTimer.java
+ */
+public class TimerWheel {
+
+    private static final String NAME = "TimerWheel";
+    private static final TimerWheel INSTANCE = new TimerWheel(TimeUnit.MILLISECONDS.toNanos(10), 512);
+
+    public static TimerWheel getInstance() {
+        return INSTANCE;
+    }
+
+    public static TimerWheel create(long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (unit == null) throw new NullPointerException("unit == null");
+        final long tickNanos = unit.toNanos(tickDuration);
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("tickDuration > 0 required but it was " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel must be in (0, 2^30] but it was " + ticksPerWheel);
+        }
+        return new TimerWheel(tickNanos, ticksPerWheel);
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    // 期限切れかキャンセルされるまでのタスク数。0ならtickスレッドは眠る
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Thread ticker;
+    private final long startTime = System.nanoTime();
+
+    private TimerWheel(long tickNanos, int ticksPerWheel) {
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.tickNanos = tickNanos;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.ticker = new Thread(this::run, "SwingScheduler-TimerWheel");
+        this.ticker.setDaemon(true);
+    }
+
+    /**
+     * 期限が来たらEDTでtaskを実行する。精度はtick単位で、切り上げられる
+     */
+    public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) throw new NullPointerException("run == null");
+        if (unit == null) throw new NullPointerException("unit == null");
+        if (started.compareAndSet(false, true)) {
+            ticker.start();
+        }
+        long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay));
+        if (deadline < 0) {
+            // オーバーフロー
+            deadline = Long.MAX_VALUE;
+        }
+        final Timeout timeout = new Timeout(this, task, deadline);
+        pending.offer(timeout);
+        if (active.getAndIncrement() == 0) {
+            LockSupport.unpark(ticker);
+        }
+        return timeout;
+    }
+
+    private void run() {
+        long tick = 0;
+        for (; ; ) {
+            if (active.get() == 0) {
+                // キャンセル済みのタスクを手放してから眠る
+                // 待ちのタスクはここではバケットに移さない。眠る直前に届いたものを古いtickで置くと、
+                // 起きた後のtickの読み飛ばしでそのバケットを通り過ぎ、1周余分に待たせてしまう
+                removeCancelled();
+                pending.removeIf(Timeout::isDisposed);
+                LockSupport.park(this);
+                // 眠っていた間のバケットは空なので、現在のtickまで飛ばしてから待ちのタスクを移す
+                tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+                continue;
+            }
+            final long sleepNanos = (tick + 1) * tickNanos - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            removeCancelled();
+            transferPending(tick);
+            final List<Timeout> expired = wheel[(int) (tick & mask)].expire(System.nanoTime() - startTime);
+            if (!expired.isEmpty()) {
+                SwingUtilities.invokeLater(BindingMetrics.instrumentTask(NAME, () -> {
+                    for (Timeout timeout : expired) {
+                        timeout.runIfActive();
+                    }
+                }));
+            }
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending(long tick) {
+        // 1tickで取り込む数に上限を設けて、tickスレッドが追いつけなくなるのを防ぐ
+        for (int i = 0; i < 100_000; i++) {
+            final Timeout timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isDisposed()) {
+                continue;
+            }
+            final long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            final long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = timeout.next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        List<Timeout> expire(long now) {
+            List<Timeout> expired = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                if (timeout.isDisposed()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove(timeout);
+                    if (timeout.expire()) {
+                        if (expired == null) {
+                            expired = new ArrayList<>();
+                        }
+                        expired.add(timeout);
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            return expired == null ? Collections.emptyList() : expired;
+        }
+    }
+
+    private static final class Timeout extends AtomicInteger implements Disposable {
+        private static final long serialVersionUID = 1L;
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimerWheel owner;
+        private final Runnable task;
+        private final long deadline;
+        // 以下はtickスレッドだけが触る
+        long remainingRounds;
+        Timeout prev;
+        Timeout next;
+        Bucket bucket;
+
+        Timeout(TimerWheel owner, Runnable task, long deadline) {
+            this.owner = owner;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        boolean expire() {
+            if (compareAndSet(WAITING, EXPIRED)) {
+                owner.active.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        void runIfActive() {
+            // EDTに渡った後でdisposeされたものは実行しない
+            if (get() != EXPIRED) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                RxJavaPlugins.onError(e);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            for (; ; ) {
+                final int state = get();
+                if (state == CANCELLED) {
+                    return;
+                }
+                if (compareAndSet(state, CANCELLED)) {
+                    if (state == WAITING) {
+                        owner.active.decrementAndGet();
+                        owner.cancelled.offer(this);
+                    }
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == CANCELLED;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.guignol.swing.rx;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 仮想時間で動く、EDTの代わりのScheduler
+ * <p>
+ * SwingScheduler.setOverrideに渡すと、EDTに積まれるはずだったタスクは全てここに溜まり、
+ * triggerActionsやadvanceTimeByを呼んだスレッドで、時刻と積まれた順に実行される。
+ * 遅延タスクも実時間を待たないので、記録したイベント列を何倍もの速さで決定的に再生できる。
+ * 実行中のスレッドを疑似的なEDTとみなし、isEventDispatchThreadで判定できる。
+ */
+public class VirtualEdtScheduler extends Scheduler {
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private long nowNanos;
+    private long sequence;
+    private long executedCount;
+    // タスクを実行中のスレッド
+    private volatile Thread dispatchThread;
+
+    @Override
+    public long now(@NonNull TimeUnit unit) {
+        synchronized (this) {
+            return unit.convert(nowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new VirtualWorker(this);
+    }
+
+    // 現在時刻までに実行予定のタスクを、実行中に積まれたものも含めて全て実行する
+    public void triggerActions() {
+        final long target;
+        synchronized (this) {
+            target = nowNanos;
+        }
+        runUntil(target);
+    }
+
+    public void advanceTimeBy(long delayTime, TimeUnit unit) {
+        final long target;
+        synchronized (this) {
+            target = nowNanos + unit.toNanos(delayTime);
+        }
+        runUntil(target);
+    }
+
+    public void advanceTimeTo(long time, TimeUnit unit) {
+        runUntil(unit.toNanos(time));
+    }
+
+    // runを疑似的なEDTで実行し、その間に積まれたタスクも実行する。SwingUtilities.invokeAndWaitの代わり
+    public void invokeAndWait(Runnable run) {
+        final Thread previous = dispatchThread;
+        dispatchThread = Thread.currentThread();
+        try {
+            run.run();
+        } finally {
+            dispatchThread = previous;
+        }
+        triggerActions();
+    }
+
+    public boolean isEventDispatchThread() {
+        return dispatchThread == Thread.currentThread();
+    }
+
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    public synchronized long getExecutedCount() {
+        return executedCount;
+    }
+
+    private void runUntil(long targetNanos) {
+        final Thread previous = dispatchThread;
+        dispatchThread = Thread.currentThread();
+        try {
+            while (true) {
+                final Task task;
+                synchronized (this) {
+                    final Task head = queue.peek();
+                    if (head == null || targetNanos < head.time) {
+                        // 巻き戻しはしない
+                        nowNanos = Math.max(nowNanos, targetNanos);
+                        return;
+                    }
+                    task = queue.poll();
+                    nowNanos = Math.max(nowNanos, task.time);
+                }
+                if (task.isDisposed() || task.worker.disposed) {
+                    continue;
+                }
+                synchronized (this) {
+                    executedCount++;
+                }
+                try {
+                    task.run.run();
+                } catch (Throwable e) {
+                    RxJavaPlugins.onError(e);
+                }
+            }
+        } finally {
+            dispatchThread = previous;
+        }
+    }
+
+    private synchronized Task enqueue(VirtualWorker worker, Runnable run, long delayNanos) {
+        final Task task = new Task(worker, run, nowNanos + Math.max(0, delayNanos), sequence++);
+        queue.offer(task);
+        return task;
+    }
+
+    private static class VirtualWorker extends Worker {
+        private final VirtualEdtScheduler scheduler;
+        volatile boolean disposed;
+
+        VirtualWorker(VirtualEdtScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+            if (disposed) {
+                return Disposables.disposed();
+            }
+            return scheduler.enqueue(this, RxJavaPlugins.onSchedule(run), unit.toNanos(delay));
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return scheduler.now(unit);
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    private static class Task implements Disposable, Comparable<Task> {
+        final VirtualWorker worker;
+        final Runnable run;
+        final long time;
+        // 同じ時刻なら積まれた順
+        final long sequence;
+        volatile boolean disposed;
+
+        Task(VirtualWorker worker, Runnable run, long time, long sequence) {
+            this.worker = worker;
+            this.run = run;
+            this.time = time;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (time != other.time) {
+                return time < other.time ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.guignol.swing.trace;
+
+import io.reactivex.annotations.NonNull;
+
+/**
+ * トレースの1件
+ * <p>
+ * 再生に必要な最小限だけを持つ。aとbの意味は種類ごとに違う。
+ * <ul>
+ * <li>COMPONENT: a = ComponentEventのID</li>
+ * <li>MOUSE: a = MouseEventのID、b = 座標(x &lt;&lt; 16 | y)、flagsにポップアップのきっかけかどうか</li>
+ * <li>DOCUMENT: flags = 挿入・削除・変更、a = 位置、b = 長さ</li>
+ * <li>LIST_SELECTION: 変更後の選択の1範囲。a = 範囲の最初の行、b = 最後の行。
+ * 選択が飛び飛びなら範囲ごとに1件ずつ続け、flagsに前の範囲に追加するか、後に続くか、選択が空かを持つ。
+ * 調整中(ドラッグ中など)の選択は記録しない</li>
+ * </ul>
+ */
+public class TraceEvent {
+
+    public enum Type {
+        COMPONENT,
+        MOUSE,
+        ACTION,
+        DOCUMENT,
+        CHANGE,
+        LIST_SELECTION
+    }
+
+    static final int FLAG_POPUP_TRIGGER = 1;
+    static final int FLAG_ADJUSTING = 1;
+    static final int FLAG_ADD = 2;
+    static final int FLAG_MORE = 4;
+    static final int FLAG_EMPTY = 8;
+    static final int DOCUMENT_INSERT = 0;
+    static final int DOCUMENT_REMOVE = 1;
+    static final int DOCUMENT_CHANGE = 2;
+
+    // 記録を始めてからの時間
+    public final long nanos;
+    public final int sourceId;
+    @NonNull
+    public final Type type;
+    public final int flags;
+    public final int a;
+    public final int b;
+
+    TraceEvent(long nanos, int sourceId, @NonNull Type type, int flags, int a, int b) {
+        this.nanos = nanos;
+        this.sourceId = sourceId;
+        this.type = type;
+        this.flags = flags;
+        this.a = a;
+        this.b = b;
+    }
+
+    public int getX() {
+        return (short) (b >> 16);
+    }
+
+    public int getY() {
+        return (short) b;
+    }
+
+    @Override
+    public String toString() {
+        return nanos + " #" + sourceId + " " + type + "(" + flags + ", " + a + ", " + b + ")";
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.guignol.swing.trace;
+
+import io.reactivex.annotations.Nullable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.ListSelectionEvent;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Propertyのイベントを、メモリマップしたリングバッファのファイルに記録する
+ * <p>
+ * 既定では無効で、無効の間はvolatileの読み取り1回のコストしかかからない。
+ * 1件は固定長の24バイト(時刻、発生元のID、種類、最小限の値)で、容量を超えたら古いものから上書きする。
+ * 発生元のIDは記録を始めてから最初に見た順に振るので、再生する側はgetSourceIdで対応を控えておくこと。
+ */
+public class TraceRecorder {
+
+    static final int MAGIC = 0x53425452;
+    static final int VERSION = 2;
+    // magic, version, recordSize, capacity, written(long), startMillis(long)
+    static final int HEADER_SIZE = 32;
+    static final int WRITTEN_OFFSET = 16;
+    static final int RECORD_SIZE = 24;
+
+    @Nullable
+    private static volatile Recording recording;
+
+    private TraceRecorder() {
+    }
+
+    /**
+     * @param capacity 記録する件数の上限。超えたら古いものから上書きする
+     */
+    public static synchronized void start(File file, int capacity) throws IOException {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity <= 0: " + capacity);
+        // バッファの位置はintなので、ファイル全体がintに収まる件数まで
+        if (HEADER_SIZE + (long) RECORD_SIZE * capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity too large: " + capacity);
+        }
+        stop();
+        recording = new Recording(file, capacity);
+    }
+
+    public static synchronized void stop() {
+        final Recording current = recording;
+        if (current == null) {
+            return;
+        }
+        recording = null;
+        current.close();
+    }
+
+    public static boolean isRecording() {
+        return recording != null;
+    }
+
+    // 記録中でなければ-1
+    public static int getSourceId(Object source) {
+        final Recording current = recording;
+        return current == null ? -1 : current.getSourceId(source);
+    }
+
+    public static void record(Object source, Object event) {
+        final Recording current = recording;
+        if (current == null) {
+            return;
+        }
+        if (event instanceof MouseEvent) {
+            final MouseEvent mouseEvent = (MouseEvent) event;
+            current.write(source, TraceEvent.Type.MOUSE,
+                    mouseEvent.isPopupTrigger() ? TraceEvent.FLAG_POPUP_TRIGGER : 0,
+                    mouseEvent.getID(),
+                    (mouseEvent.getX() << 16) | (mouseEvent.getY() & 0xffff));
+        } else if (event instanceof ComponentEvent) {
+            final int id = ((ComponentEvent) event).getID();
+            if (ComponentEvent.COMPONENT_FIRST <= id && id <= ComponentEvent.COMPONENT_LAST) {
+                current.write(source, TraceEvent.Type.COMPONENT, 0, id, 0);
+            }
+        } else if (event instanceof ActionEvent) {
+            current.write(source, TraceEvent.Type.ACTION, 0, 0, 0);
+        } else if (event instanceof DocumentEvent) {
+            final DocumentEvent documentEvent = (DocumentEvent) event;
+            final int type;
+            if (documentEvent.getType() == DocumentEvent.EventType.INSERT) {
+                type = TraceEvent.DOCUMENT_INSERT;
+            } else if (documentEvent.getType() == DocumentEvent.EventType.REMOVE) {
+                type = TraceEvent.DOCUMENT_REMOVE;
+            } else {
+                type = TraceEvent.DOCUMENT_CHANGE;
+            }
+            current.write(source, TraceEvent.Type.DOCUMENT, type, documentEvent.getOffset(), documentEvent.getLength());
+        } else if (event instanceof ChangeEvent) {
+            current.write(source, TraceEvent.Type.CHANGE, 0, 0, 0);
+        } else if (event instanceof ListSelectionEvent) {
+            // ドラッグ中の調整中のイベントは選択全体を辿るので記録せず、確定した選択だけを残す
+            if (!((ListSelectionEvent) event).getValueIsAdjusting()) {
+                recordSelection(current, source);
+            }
+        }
+    }
+
+    // イベントの範囲ではなく、変更後の選択を範囲に分けて記録する。再生ではモデルをその通りに選択し直す
+    private static void recordSelection(Recording current, Object source) {
+        final ListSelectionModel model;
+        if (source instanceof JList) {
+            model = ((JList<?>) source).getSelectionModel();
+        } else if (source instanceof ListSelectionModel) {
+            model = (ListSelectionModel) source;
+        } else {
+            return;
+        }
+        final int min = model.getMinSelectionIndex();
+        final int max = model.getMaxSelectionIndex();
+        if (min < 0) {
+            current.write(source, TraceEvent.Type.LIST_SELECTION, TraceEvent.FLAG_EMPTY, -1, -1);
+            return;
+        }
+        // 範囲は1つ先読みして、後に続くかどうかを付けて書く
+        int start = -1;
+        int pendingStart = -1;
+        int pendingEnd = -1;
+        int flags = 0;
+        for (int i = min; i <= max + 1; i++) {
+            if (i <= max && model.isSelectedIndex(i)) {
+                if (start < 0) {
+                    start = i;
+                }
+                continue;
+            }
+            if (start < 0) {
+                continue;
+            }
+            if (0 <= pendingStart) {
+                current.write(source, TraceEvent.Type.LIST_SELECTION, flags | TraceEvent.FLAG_MORE, pendingStart, pendingEnd);
+                flags = TraceEvent.FLAG_ADD;
+            }
+            pendingStart = start;
+            pendingEnd = i - 1;
+            start = -1;
+        }
+        current.write(source, TraceEvent.Type.LIST_SELECTION, flags, pendingStart, pendingEnd);
+    }
+
+    private static class Recording {
+        private final RandomAccessFile file;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final long startNanos = System.nanoTime();
+        // 発生元は弱参照で持ち、記録のために画面を残さない
+        private final Map<Object, Integer> sourceIds = new WeakHashMap<>();
+        private int nextSourceId;
+        private long written;
+
+        Recording(File path, int capacity) throws IOException {
+            this.file = new RandomAccessFile(path, "rw");
+            this.capacity = capacity;
+            final long size = HEADER_SIZE + (long) RECORD_SIZE * capacity;
+            file.setLength(size);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_SIZE);
+            buffer.putInt(12, capacity);
+            buffer.putLong(WRITTEN_OFFSET, 0);
+            buffer.putLong(24, System.currentTimeMillis());
+        }
+
+        synchronized int getSourceId(Object source) {
+            Integer id = sourceIds.get(source);
+            if (id == null) {
+                id = nextSourceId++;
+                sourceIds.put(source, id);
+            }
+            return id;
+        }
+
+        synchronized void write(Object source, TraceEvent.Type type, int flags, int a, int b) {
+            final int position = HEADER_SIZE + (int) (written % capacity) * RECORD_SIZE;
+            buffer.putLong(position, System.nanoTime() - startNanos);
+            buffer.putInt(position + 8, getSourceId(source));
+            buffer.putShort(position + 12, (short) type.ordinal());
+            buffer.putShort(position + 14, (short) flags);
+            buffer.putInt(position + 16, a);
+            buffer.putInt(position + 20, b);
+            buffer.putLong(WRITTEN_OFFSET, ++written);
+        }
+
+        synchronized void close() {
+            buffer.force();
+            try {
+                file.close();
+            } catch (IOException e) {
+                RxJavaPlugins.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.github.guignol.swing.trace;
+
+import io.reactivex.Scheduler;
+import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * TraceRecorderで記録したファイルを読み、同じバインディングにイベントを流し直す
+ * <p>
+ * 記録しているのは最小限の値だけなので、イベントは作り直して発生元のリスナーに渡す。
+ * Documentは記録した長さの文字を挿入・削除するだけで、文字の内容までは再現しない。
+ * 選択は記録した選択の通りにモデルを選び直すので、getSelectedIndicesを読むバインディングにも届く。
+ * 発生元はsourcesで記録時のIDから引く。見つからないイベントは飛ばす。
+ * EDT(またはVirtualEdtScheduler)から使うこと。
+ */
+public class TraceReplayer {
+
+    private static final TraceEvent.Type[] TYPES = TraceEvent.Type.values();
+
+    private final List<TraceEvent> events;
+
+    private TraceReplayer(List<TraceEvent> events) {
+        this.events = events;
+    }
+
+    public static TraceReplayer open(File file) throws IOException {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            final MappedByteBuffer buffer = input.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, input.length());
+            if (buffer.getInt(0) != TraceRecorder.MAGIC) {
+                throw new IOException("not a trace file: " + file);
+            }
+            if (buffer.getInt(4) != TraceRecorder.VERSION) {
+                throw new IOException("unsupported trace version: " + buffer.getInt(4));
+            }
+            final int recordSize = buffer.getInt(8);
+            final int capacity = buffer.getInt(12);
+            final long written = buffer.getLong(TraceRecorder.WRITTEN_OFFSET);
+            // 一周していたら、次に上書きされるはずだった位置が一番古い
+            final int count = (int) Math.min(written, capacity);
+            final int oldest = written > capacity ? (int) (written % capacity) : 0;
+            final List<TraceEvent> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final int position = TraceRecorder.HEADER_SIZE + ((oldest + i) % capacity) * recordSize;
+                events.add(new TraceEvent(
+                        buffer.getLong(position),
+                        buffer.getInt(position + 8),
+                        TYPES[buffer.getShort(position + 12)],
+                        buffer.getShort(position + 14),
+                        buffer.getInt(position + 16),
+                        buffer.getInt(position + 20)));
+            }
+            return new TraceReplayer(Collections.unmodifiableList(events));
+        }
+    }
+
+    public List<TraceEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * 全てのイベントを、記録した時間の間隔を空けずに今のスレッドで流す
+     *
+     * @return 流したイベントの数
+     */
+    public int replay(IntFunction<?> sources) {
+        int dispatched = 0;
+        for (int start = 0; start < events.size(); ) {
+            final int end = groupEnd(start);
+            if (dispatch(events.subList(start, end), sources.apply(events.get(start).sourceId))) {
+                dispatched++;
+            }
+            start = end;
+        }
+        return dispatched;
+    }
+
+    /**
+     * 記録した時間の間隔でschedulerから流す
+     * <p>
+     * VirtualEdtSchedulerを渡せば、実時間を待たずに決定的に再生できる
+     */
+    public Disposable replay(IntFunction<?> sources, Scheduler scheduler) {
+        final CompositeDisposable disposables = new CompositeDisposable();
+        if (events.isEmpty()) {
+            return disposables;
+        }
+        final Scheduler.Worker worker = scheduler.createWorker();
+        disposables.add(worker);
+        final long origin = events.get(0).nanos;
+        for (int start = 0; start < events.size(); ) {
+            final int end = groupEnd(start);
+            final List<TraceEvent> group = events.subList(start, end);
+            final TraceEvent first = group.get(0);
+            worker.schedule(() -> dispatch(group, sources.apply(first.sourceId)),
+                    first.nanos - origin, TimeUnit.NANOSECONDS);
+            start = end;
+        }
+        return disposables;
+    }
+
+    // 飛び飛びの選択は範囲ごとの記録がFLAG_MOREで続くので、1つの選択としてまとめて流す
+    private int groupEnd(int start) {
+        int end = start;
+        while (end + 1 < events.size()) {
+            final TraceEvent event = events.get(end);
+            if (event.type != TraceEvent.Type.LIST_SELECTION
+                    || (event.flags & TraceEvent.FLAG_MORE) == 0
+                    || events.get(end + 1).sourceId != event.sourceId) {
+                break;
+            }
+            end++;
+        }
+        return end + 1;
+    }
+
+    private static boolean dispatch(List<TraceEvent> group, @Nullable Object source) {
+        if (group.size() == 1 || group.get(0).type != TraceEvent.Type.LIST_SELECTION) {
+            return dispatch(group.get(0), source);
+        }
+        final ListSelectionModel selectionModel = getSelectionModel(source);
+        if (selectionModel == null) {
+            return false;
+        }
+        dispatchSelection(group, selectionModel);
+        return true;
+    }
+
+    /**
+     * @return 流せたかどうか
+     */
+    public static boolean dispatch(TraceEvent event, @Nullable Object source) {
+        if (source == null) {
+            return false;
+        }
+        switch (event.type) {
+            case COMPONENT:
+                if (source instanceof Component) {
+                    final Component component = (Component) source;
+                    component.dispatchEvent(new ComponentEvent(component, event.a));
+                    return true;
+                }
+                return false;
+            case MOUSE:
+                if (source instanceof Component) {
+                    final Component component = (Component) source;
+                    component.dispatchEvent(new MouseEvent(component, event.a, System.currentTimeMillis(), 0,
+                            event.getX(), event.getY(), event.a == MouseEvent.MOUSE_CLICKED ? 1 : 0,
+                            (event.flags & TraceEvent.FLAG_POPUP_TRIGGER) != 0));
+                    return true;
+                }
+                return false;
+            case ACTION:
+                if (source instanceof AbstractButton) {
+                    final AbstractButton button = (AbstractButton) source;
+                    final ActionEvent actionEvent = new ActionEvent(button, ActionEvent.ACTION_PERFORMED, button.getActionCommand());
+                    for (ActionListener listener : button.getActionListeners()) {
+                        listener.actionPerformed(actionEvent);
+                    }
+                    return true;
+                }
+                return false;
+            case DOCUMENT:
+                if (source instanceof Document) {
+                    return dispatchDocument(event, (Document) source);
+                }
+                return false;
+            case CHANGE:
+                final ChangeListener[] changeListeners;
+                if (source instanceof AbstractButton) {
+                    changeListeners = ((AbstractButton) source).getChangeListeners();
+                } else if (source instanceof JViewport) {
+                    changeListeners = ((JViewport) source).getChangeListeners();
+                } else {
+                    return false;
+                }
+                final ChangeEvent changeEvent = new ChangeEvent(source);
+                for (ChangeListener listener : changeListeners) {
+                    listener.stateChanged(changeEvent);
+                }
+                return true;
+            case LIST_SELECTION:
+                final ListSelectionModel selectionModel = getSelectionModel(source);
+                if (selectionModel == null) {
+                    return false;
+                }
+                dispatchSelection(Collections.singletonList(event), selectionModel);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Nullable
+    private static ListSelectionModel getSelectionModel(@Nullable Object source) {
+        if (source instanceof JList) {
+            return ((JList<?>) source).getSelectionModel();
+        }
+        if (source instanceof ListSelectionModel) {
+            return (ListSelectionModel) source;
+        }
+        return null;
+    }
+
+    /**
+     * 記録した選択の通りにモデルを選択し直し、モデルのリスナーから普段通りにイベントを出させる
+     * <p>
+     * JListとその選択モデルの両方から記録されていることもあるので、既に同じ選択なら選び直さない
+     */
+    private static void dispatchSelection(List<TraceEvent> ranges, ListSelectionModel selectionModel) {
+        final TraceEvent first = ranges.get(0);
+        final boolean adjusting = (ranges.get(ranges.size() - 1).flags & TraceEvent.FLAG_ADJUSTING) != 0;
+        if ((first.flags & TraceEvent.FLAG_EMPTY) != 0) {
+            selectionModel.setValueIsAdjusting(adjusting);
+            if (!selectionModel.isSelectionEmpty()) {
+                selectionModel.clearSelection();
+            }
+            return;
+        }
+        if (isSelected(ranges, selectionModel)) {
+            // ドラッグの終わりのように、調整中かどうかだけが変わることもある
+            selectionModel.setValueIsAdjusting(adjusting);
+            return;
+        }
+        // 飛び飛びの選択は、範囲を全て選び終わるまで調整中にしておく
+        selectionModel.setValueIsAdjusting(adjusting || 1 < ranges.size());
+        selectionModel.setSelectionInterval(first.a, first.b);
+        for (int i = 1; i < ranges.size(); i++) {
+            selectionModel.addSelectionInterval(ranges.get(i).a, ranges.get(i).b);
+        }
+        selectionModel.setValueIsAdjusting(adjusting);
+    }
+
+    private static boolean isSelected(List<TraceEvent> ranges, ListSelectionModel selectionModel) {
+        if (selectionModel.getMinSelectionIndex() != ranges.get(0).a
+                || selectionModel.getMaxSelectionIndex() != ranges.get(ranges.size() - 1).b) {
+            return false;
+        }
+        int next = ranges.get(0).a;
+        for (TraceEvent range : ranges) {
+            for (int i = next; i <= range.b; i++) {
+                if (selectionModel.isSelectedIndex(i) != (range.a <= i)) {
+                    return false;
+                }
+            }
+            next = range.b + 1;
+        }
+        return true;
+    }
+
+    private static boolean dispatchDocument(TraceEvent event, Document document) {
+        try {
+            switch (event.flags) {
+                case TraceEvent.DOCUMENT_INSERT:
+                    final char[] text = new char[event.b];
+                    Arrays.fill(text, ' ');
+                    document.insertString(event.a, new String(text), null);
+                    return true;
+                case TraceEvent.DOCUMENT_REMOVE:
+                    document.remove(event.a, event.b);
+                    return true;
+                default:
+                    // 属性の変更は再現しない
+                    return false;
+            }
+        } catch (BadLocationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.guignol.swing.binding;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// ListDiffとListPatchを、適用した結果が変更後のリストになるかで確かめる
+public class ListDiffTest {
+
+    @Test
+    public void sameListHasNoOps() throws Exception {
+        final List<String> list = Arrays.asList("a", "b", "c");
+        assertTrue(ListDiff.compute(list, new ArrayList<>(list), Objects::equals, Objects::equals).isEmpty());
+    }
+
+    @Test
+    public void insertAndRemoveAreMinimal() throws Exception {
+        final List<ListDiff.Op> ops = ListDiff.compute(
+                Arrays.asList("a", "b", "c", "d"),
+                Arrays.asList("a", "x", "c", "d", "e"),
+                Objects::equals, Objects::equals);
+        // 同じ位置の削除と挿入はCHANGEにまとまる
+        assertEquals("[CHANGE(1, 1, from 1), INSERT(4, 1, from 4)]", ops.toString());
+    }
+
+    @Test
+    public void changedContentBecomesChange() throws Exception {
+        // "id:内容"
+        final List<ListDiff.Op> ops = ListDiff.compute(
+                Arrays.asList("1:a", "2:b", "3:c"),
+                Arrays.asList("1:a", "2:B", "3:c"),
+                (x, y) -> x.charAt(0) == y.charAt(0), Objects::equals);
+        assertEquals("[CHANGE(1, 1, from 1)]", ops.toString());
+    }
+
+    @Test
+    public void largeDiffReplacesWholeList() throws Exception {
+        final List<Integer> before = range(0, 3000);
+        final List<Integer> after = range(10000, 12500);
+        final List<ListDiff.Op> ops = ListDiff.compute(before, after, Objects::equals, Objects::equals);
+        assertEquals("[CHANGE(0, 2500, from 0), REMOVE(2500, 500)]", ops.toString());
+        assertEquals(after, apply(before, after));
+    }
+
+    @Test
+    public void patchRoundTripsRandomEdits() throws Exception {
+        final Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            final List<Integer> before = randomList(random);
+            final List<Integer> after = edit(random, before);
+            assertEquals("before=" + before, after, apply(before, after));
+        }
+    }
+
+    @Test
+    public void largeOpsAreAppliedInChunks() throws Exception {
+        final List<Integer> after = range(0, ListPatch.CHUNK_SIZE * 2 + 1);
+        final List<String> fired = new ArrayList<>();
+        final ListPatch.Target<Integer> target = new ListPatch.Target<Integer>() {
+            @Override
+            void fire(ListDiff.Op op) {
+                fired.add(op.toString());
+            }
+        };
+        final Iterator<Runnable> steps = ListPatch.between(Collections.emptyList(), after, Objects::equals, Objects::equals)
+                .steps(target);
+        while (steps.hasNext()) {
+            steps.next().run();
+        }
+        assertEquals(Arrays.asList("INSERT(0, 1024, from 0)", "INSERT(1024, 1024, from 1024)", "INSERT(2048, 1, from 2048)"),
+                fired);
+        assertEquals(after, target.items);
+    }
+
+    // ListPatchの手順を全て適用し、通知された範囲がその時点のリストに収まっていることも確かめる
+    private static List<Integer> apply(List<Integer> before, List<Integer> after) throws Exception {
+        final ListPatch.Target<Integer> target = new ListPatch.Target<Integer>() {
+            @Override
+            void fire(ListDiff.Op op) {
+                final int size = op.type == ListDiff.Type.REMOVE ? items.size() + op.count : items.size();
+                assertTrue(op + " in " + size, 0 <= op.index && op.index + op.count <= size);
+            }
+        };
+        target.items.addAll(before);
+        final Iterator<Runnable> steps = ListPatch.between(before, after, Objects::equals, Objects::equals).steps(target);
+        while (steps.hasNext()) {
+            steps.next().run();
+        }
+        return target.items;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static List<Integer> randomList(Random random) {
+        final List<Integer> list = new ArrayList<>();
+        final int size = random.nextInt(30);
+        for (int i = 0; i < size; i++) {
+            list.add(random.nextInt(10));
+        }
+        return list;
+    }
+
+    // 挿入、削除、移動を混ぜる
+    private static List<Integer> edit(Random random, List<Integer> before) {
+        final List<Integer> after = new ArrayList<>(before);
+        final int edits = random.nextInt(6);
+        for (int i = 0; i < edits; i++) {
+            final int kind = random.nextInt(3);
+            if (kind == 0 || after.isEmpty()) {
+                after.add(random.nextInt(after.size() + 1), random.nextInt(10));
+            } else if (kind == 1) {
+                after.remove(random.nextInt(after.size()));
+            } else {
+                after.add(random.nextInt(after.size()), after.remove(random.nextInt(after.size())));
+            }
+        }
+        return after;
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.guignol.swing.binding;
+
+import io.reactivex.Observable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Hubが通知のキーに登録されたBinderにだけ流し、元のストリームを1回だけ購読すること
+public class NotificationHubTest {
+
+    enum Key implements Notification.FromValue<Key, Integer> {
+        A, B, C
+    }
+
+    private final PublishSubject<Notification<Key, Integer>> source = PublishSubject.create();
+    private final Notification.Hub<Key, Integer> hub = Notification.hub(source, Key.class);
+
+    @Test
+    public void routesByKey() {
+        final List<Integer> a = new ArrayList<>();
+        final List<Integer> bc = new ArrayList<>();
+        final List<Integer> all = new ArrayList<>();
+        hub.getBinder(Key.A).toView(a::add);
+        hub.getBinder(Key.B, Key.C).toView(bc::add);
+        hub.getBinder().toView(all::add);
+
+        source.onNext(Key.A.notify(1));
+        source.onNext(Key.B.notify(2));
+        source.onNext(Key.C.notify(3));
+
+        assertEquals(Collections.singletonList(1), a);
+        assertEquals(Arrays.asList(2, 3), bc);
+        assertEquals(Arrays.asList(1, 2, 3), all);
+    }
+
+    @Test
+    public void subscribesSourceOnceWhileBound() {
+        final AtomicInteger subscriptions = new AtomicInteger();
+        final Notification.Hub<Key, Integer> counted = Notification.hub(
+                source.doOnSubscribe(d -> subscriptions.incrementAndGet()), Key.class);
+        final Disposable first = counted.getBinder(Key.A).toView(value -> {
+        });
+        final Disposable second = counted.getBinder(Key.B).toView(value -> {
+        });
+        assertEquals(1, subscriptions.get());
+
+        first.dispose();
+        assertTrue(source.hasObservers());
+        second.dispose();
+        assertFalse(source.hasObservers());
+
+        // 全て外れた後に繋ぎ直せる
+        final List<Integer> received = new ArrayList<>();
+        counted.getBinder(Key.A).toView(received::add);
+        source.onNext(Key.A.notify(4));
+        assertEquals(2, subscriptions.get());
+        assertEquals(Collections.singletonList(4), received);
+    }
+
+    @Test
+    public void completionReachesSubscriberOfSeveralKeysOnce() {
+        final TestObserver<Integer> observer = hub.getBinder(Key.A, Key.B).source.test();
+        source.onNext(Key.B.notify(1));
+        source.onComplete();
+        observer.assertResult(1);
+        assertFalse(source.hasObservers());
+    }
+
+    @Test
+    public void reconnectsAfterSourceCompletedSynchronously() {
+        final Notification.Hub<Key, Integer> finite = Notification.hub(
+                Observable.just(Key.A.notify(1), Key.B.notify(2)), Key.class);
+        final List<Integer> received = new ArrayList<>();
+        finite.getBinder(Key.A).toView(received::add);
+        finite.getBinder(Key.A).toView(received::add);
+        assertEquals(Arrays.asList(1, 1), received);
+    }
+}
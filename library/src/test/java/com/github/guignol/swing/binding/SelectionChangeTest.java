@@ -0,0 +1,86 @@
+package com.github.guignol.swing.binding;
+
+import com.github.guignol.swing.rx.SwingScheduler;
+import com.github.guignol.swing.rx.VirtualEdtScheduler;
+import io.reactivex.observers.TestObserver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.*;
+
+import static org.junit.Assert.assertEquals;
+
+// Property.onSelectionChangeが、変わった範囲だけを差分として流すこと
+public class SelectionChangeTest {
+
+    private final VirtualEdtScheduler edt = new VirtualEdtScheduler();
+    private final DefaultListSelectionModel model = new DefaultListSelectionModel();
+    private TestObserver<String> observer;
+
+    @Before
+    public void setUp() {
+        SwingScheduler.setOverride(edt);
+        model.setSelectionInterval(1, 2);
+        observer = Property.onSelectionChange(model).map(SelectionChangeTest::describe).test();
+        edt.triggerActions();
+    }
+
+    @After
+    public void tearDown() {
+        observer.dispose();
+        edt.triggerActions();
+        SwingScheduler.setOverride(null);
+    }
+
+    @Test
+    public void emitsInitialSelection() {
+        observer.assertValues("Selection[1-2] +Selection[1-2] -Selection[]");
+    }
+
+    @Test
+    public void emitsAddedAndRemovedRanges() {
+        edt.invokeAndWait(() -> {
+            model.addSelectionInterval(5, 7);
+            model.removeSelectionInterval(2, 6);
+            model.setSelectionInterval(10, 10);
+        });
+        observer.assertValues(
+                "Selection[1-2] +Selection[1-2] -Selection[]",
+                "Selection[1-2, 5-7] +Selection[5-7] -Selection[]",
+                "Selection[1, 7] +Selection[] -Selection[2, 5-6]",
+                "Selection[10] +Selection[10] -Selection[1, 7]");
+    }
+
+    @Test
+    public void adjustingChangesAreEmittedOnceWhenSettled() {
+        edt.invokeAndWait(() -> {
+            model.setValueIsAdjusting(true);
+            model.setSelectionInterval(3, 3);
+            model.setSelectionInterval(3, 6);
+            model.setSelectionInterval(3, 8);
+            model.setValueIsAdjusting(false);
+        });
+        observer.assertValues(
+                "Selection[1-2] +Selection[1-2] -Selection[]",
+                "Selection[3-8] +Selection[3-8] -Selection[1-2]");
+    }
+
+    @Test
+    public void unchangedSelectionIsNotEmitted() {
+        edt.invokeAndWait(() -> model.addSelectionInterval(1, 2));
+        observer.assertValueCount(1);
+    }
+
+    @Test
+    public void removesListenerWhenDisposed() {
+        assertEquals(1, model.getListSelectionListeners().length);
+        observer.dispose();
+        edt.triggerActions();
+        assertEquals(0, model.getListSelectionListeners().length);
+    }
+
+    private static String describe(Selection.Change change) {
+        return change.selection + " +" + change.added + " -" + change.removed;
+    }
+}
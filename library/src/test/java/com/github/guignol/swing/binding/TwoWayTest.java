@@ -0,0 +1,152 @@
+package com.github.guignol.swing.binding;
+
+import com.github.guignol.swing.cell.BooleanCell;
+import com.github.guignol.swing.cell.RefCell;
+import com.github.guignol.swing.rx.SwingScheduler;
+import com.github.guignol.swing.rx.VirtualEdtScheduler;
+import io.reactivex.disposables.Disposable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+// 反響を捨てること、セル側で直された値がコンポーネントに戻ること
+public class TwoWayTest {
+
+    private final VirtualEdtScheduler edt = new VirtualEdtScheduler();
+
+    @Before
+    public void setUp() {
+        SwingScheduler.setOverride(edt);
+    }
+
+    @After
+    public void tearDown() {
+        SwingScheduler.setOverride(null);
+    }
+
+    @Test
+    public void textAppliesCellValueWhenConnected() {
+        final JTextField field = new JTextField("view");
+        final RefCell<String> cell = new RefCell<>("model");
+        TwoWay.text(field, cell);
+        assertEquals("model", field.getText());
+    }
+
+    @Test
+    public void typingWritesCellOncePerEdit() {
+        final JTextField field = new JTextField();
+        final RefCell<String> cell = new RefCell<>("");
+        final List<String> written = new ArrayList<>();
+        cell.addListener(written::add);
+        TwoWay.text(field, cell);
+        edt.invokeAndWait(() -> {
+            insert(field, 0, "ab");
+            insert(field, 2, "c");
+        });
+        assertEquals(Arrays.asList("ab", "abc"), written);
+        assertEquals("abc", field.getText());
+    }
+
+    @Test
+    public void cellWriteIsNotEchoedBack() {
+        final JTextField field = new JTextField();
+        final RefCell<String> cell = new RefCell<>("");
+        final List<String> written = new ArrayList<>();
+        cell.addListener(written::add);
+        TwoWay.text(field, cell);
+        edt.invokeAndWait(() -> cell.set("hello"));
+        assertEquals("hello", field.getText());
+        // setTextが起こすremoveとinsertのイベントでセルに書き戻さない
+        assertEquals(Collections.singletonList("hello"), written);
+    }
+
+    @Test
+    public void correctionInListenerIsAppliedAfterTheEdit() {
+        final JTextField field = new JTextField();
+        final RefCell<String> cell = new RefCell<>("");
+        // 3文字までに切り詰める
+        cell.addListener(value -> {
+            if (value.length() > 3) {
+                cell.set(value.substring(0, 3));
+            }
+        });
+        TwoWay.text(field, cell);
+        // DocumentListenerの中でDocumentを変えると例外になるので、反映はEDTのキューの後ろに回る
+        edt.invokeAndWait(() -> insert(field, 0, "abcdef"));
+        assertEquals("abc", cell.get());
+        assertEquals("abc", field.getText());
+    }
+
+    @Test
+    public void rejectedToggleIsRestored() {
+        final JCheckBox checkBox = new JCheckBox();
+        final BooleanCell cell = new BooleanCell(false);
+        // trueを受け付けない
+        cell.addListener(value -> {
+            if (value) {
+                cell.set(false);
+            }
+        });
+        TwoWay.selected(checkBox, cell);
+        edt.invokeAndWait(() -> checkBox.setSelected(true));
+        assertFalse(cell.get());
+        assertFalse(checkBox.isSelected());
+    }
+
+    @Test
+    public void selectionFollowsBothWays() {
+        final JList<String> list = new JList<>(new String[]{"a", "b", "c", "d"});
+        final RefCell<int[]> cell = new RefCell<>(new int[]{1}, Arrays::equals);
+        final List<int[]> written = new ArrayList<>();
+        cell.addListener(written::add);
+        TwoWay.selection(list, cell);
+        assertArrayEquals(new int[]{1}, list.getSelectedIndices());
+
+        // ドラッグ中の選択は書き込まず、離した時の選択だけを書き込む
+        edt.invokeAndWait(() -> {
+            list.setValueIsAdjusting(true);
+            list.setSelectionInterval(0, 0);
+            list.addSelectionInterval(2, 2);
+            list.setValueIsAdjusting(false);
+        });
+        assertArrayEquals(new int[]{0, 2}, cell.get());
+        assertEquals(1, written.size());
+
+        edt.invokeAndWait(() -> cell.set(new int[]{3}));
+        assertArrayEquals(new int[]{3}, list.getSelectedIndices());
+        assertEquals(2, written.size());
+    }
+
+    @Test
+    public void disposeDisconnectsBothWays() {
+        final JTextField field = new JTextField();
+        final RefCell<String> cell = new RefCell<>("");
+        final Disposable disposable = TwoWay.text(field, cell);
+        disposable.dispose();
+        edt.invokeAndWait(() -> {
+            insert(field, 0, "view");
+            cell.set("model");
+        });
+        assertEquals("view", field.getText());
+        assertEquals("model", cell.get());
+    }
+
+    private static void insert(JTextField field, int offset, String text) {
+        try {
+            field.getDocument().insertString(offset, text, null);
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.guignol.swing.cell;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DerivedTest {
+
+    @Test
+    public void computesLazilyWhileUnobserved() {
+        final IntCell a = new IntCell(1);
+        final Derived<Integer> b = Derived.of(() -> a.get() * 10, a);
+        assertEquals(0, b.getComputeCount());
+        assertEquals(10, (int) b.get());
+        assertEquals(10, (int) b.get());
+        assertEquals(1, b.getComputeCount());
+        a.set(2);
+        a.set(3);
+        // 読まれるまで計算しない
+        assertEquals(1, b.getComputeCount());
+        assertEquals(30, (int) b.get());
+        assertEquals(2, b.getComputeCount());
+    }
+
+    @Test
+    public void diamondIsComputedAndNotifiedOnce() {
+        // a -> b, c -> d
+        final IntCell a = new IntCell(1);
+        final Derived<Integer> b = Derived.of(() -> a.get() + 1, a);
+        final Derived<Integer> c = Derived.of(() -> a.get() * 2, a);
+        final List<String> seen = new ArrayList<>();
+        final Derived<Integer> d = Derived.of(() -> {
+            // 古いbと新しいcが混ざっていないこと
+            seen.add(b.get() + "+" + c.get());
+            return b.get() + c.get();
+        }, b, c);
+        final List<Integer> notified = new ArrayList<>();
+        d.addListener(notified::add);
+        seen.clear();
+
+        a.set(5);
+        assertEquals(Collections.singletonList("6+10"), seen);
+        assertEquals(Collections.singletonList(16), notified);
+        assertEquals(2, d.getComputeCount());
+    }
+
+    @Test
+    public void notifiesOnlyWhenValueChanges() {
+        final IntCell a = new IntCell(1);
+        final Derived<Boolean> even = Derived.of(() -> a.get() % 2 == 0, a);
+        final List<Boolean> notified = new ArrayList<>();
+        even.addListener(notified::add);
+        a.set(3);
+        a.set(4);
+        a.set(6);
+        a.set(7);
+        assertEquals(Arrays.asList(true, false), notified);
+    }
+
+    @Test
+    public void stopsPropagatingAfterListenerRemoved() {
+        final IntCell a = new IntCell(1);
+        final Derived<Integer> b = Derived.of(() -> a.get() * 10, a);
+        final List<Integer> notified = new ArrayList<>();
+        final Derived.Listener<Integer> listener = notified::add;
+        b.addListener(listener);
+        b.removeListener(listener);
+        final int count = b.getComputeCount();
+        a.set(2);
+        assertEquals(count, b.getComputeCount());
+        assertEquals(Collections.emptyList(), notified);
+    }
+
+    @Test
+    public void failedComputationDoesNotStopOtherDerived() {
+        final IntCell a = new IntCell(1);
+        final Derived<Integer> failing = Derived.of(() -> {
+            if (a.get() == 2) {
+                throw new IllegalArgumentException("2");
+            }
+            return a.get();
+        }, a);
+        final Derived<Integer> deeper = Derived.of(() -> failing.get() * 10, failing);
+        final List<Integer> notified = new ArrayList<>();
+        deeper.addListener(notified::add);
+        try {
+            a.set(2);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        // 次の変更では、止まったところからではなく普段通りに更新される
+        a.set(3);
+        assertEquals(Collections.singletonList(30), notified);
+        assertEquals(30, (int) deeper.get());
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.guignol.swing.rx;
+
+import io.reactivex.disposables.Disposable;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// TimerWheelはEDTに直接渡すので、仮想時間ではなく実際のEDTで待つ
+public class TimerWheelTest {
+
+    private final TimerWheel wheel = TimerWheel.create(1, TimeUnit.MILLISECONDS, 16);
+
+    @Test
+    public void firesOnEdtAfterDelay() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicBoolean onEdt = new AtomicBoolean();
+        final long start = System.nanoTime();
+        wheel.schedule(() -> {
+            onEdt.set(SwingUtilities.isEventDispatchThread());
+            latch.countDown();
+        }, 30, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 30);
+        assertTrue(onEdt.get());
+    }
+
+    @Test
+    public void firesAfterSeveralRotations() throws Exception {
+        // 1周は16ms。何周か回ってから期限が来る
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        wheel.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+    }
+
+    @Test
+    public void firesInDeadlineOrder() throws Exception {
+        final List<Integer> fired = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch = new CountDownLatch(3);
+        wheel.schedule(() -> {
+            fired.add(3);
+            latch.countDown();
+        }, 60, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> {
+            fired.add(1);
+            latch.countDown();
+        }, 10, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> {
+            fired.add(2);
+            latch.countDown();
+        }, 35, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2, 3), fired);
+    }
+
+    @Test
+    public void cancelledTaskNeverRuns() throws Exception {
+        final AtomicBoolean cancelledRan = new AtomicBoolean();
+        final Disposable cancelled = wheel.schedule(() -> cancelledRan.set(true), 20, TimeUnit.MILLISECONDS);
+        cancelled.dispose();
+        assertTrue(cancelled.isDisposed());
+        // 後の期限のタスクが実行されるまで待てば、キャンセルした方の期限は過ぎている
+        final CountDownLatch latch = new CountDownLatch(1);
+        wheel.schedule(latch::countDown, 60, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        flushEdt();
+        assertFalse(cancelledRan.get());
+    }
+
+    @Test
+    public void firesAgainAfterIdle() throws Exception {
+        // 全て期限切れになるとtickスレッドは眠る。起きた後のタスクも実行される
+        for (int i = 0; i < 3; i++) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            wheel.schedule(latch::countDown, 5, TimeUnit.MILLISECONDS);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+        }
+    }
+
+    private static void flushEdt() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.guignol.swing.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// AbstractButtonのフィールドに付けると、押されるたびにViewModelのvalue()を呼ぶ
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface BindAction {
+    String value();
+}
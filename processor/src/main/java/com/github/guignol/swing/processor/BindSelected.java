@@ -0,0 +1,13 @@
+package com.github.guignol.swing.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// AbstractButtonのフィールドに付けると、選択状態が変わるたびにViewModelのvalue(boolean)を呼ぶ
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface BindSelected {
+    String value();
+}
@@ -2,19 +2,27 @@ package com.github.guignol.swing.processor;
 
 import com.github.guignol.swing.binding.ComponentHolder;
 import com.github.guignol.swing.binding.IView;
+import com.github.guignol.swing.binding.IViewModel;
+import com.github.guignol.swing.binding.Recyclable;
 import com.google.auto.service.AutoService;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
-import javax.lang.model.element.Element;
-import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.*;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
+import javax.swing.AbstractButton;
+import javax.swing.text.JTextComponent;
 import javax.tools.Diagnostic;
 import java.io.IOException;
-import java.util.List;
-import java.util.Set;
+import java.lang.annotation.Annotation;
+import java.util.*;
 
 /**
  * http://www.ne.jp/asahi/hishidama/home/tech/java/annotation.html
@@ -23,64 +31,307 @@ import java.util.Set;
  */
 @AutoService(javax.annotation.processing.Processor.class)
 @SupportedAnnotationTypes("com.github.guignol.swing.processor.*")
-@SupportedSourceVersion(SourceVersion.RELEASE_8)
 public class Processor extends AbstractProcessor {
+
+    // 生成するレジストリのクラス名。指定された時だけ全てのファクトリーをまとめる
+    static final String REGISTRY_OPTION = "swingbinding.registry";
+
+    // 型の解決は重いので、よく使う型はinitで一度だけ引いておく
+    private Types typeUtils;
+    private Elements elementUtils;
+    private Messager messager;
+    private TypeMirror iView;
+    private TypeMirror iViewModel;
+    private TypeMirror componentHolder;
+    private TypeMirror recyclable;
+    // 同じViewModelを使うViewが多いので、ラウンド内ではIViewModelの解決結果を使い回す
+    private final Map<TypeElement, DeclaredType> viewModelCache = new HashMap<>();
+    // @Viewと@Bind*の両方が付いたクラスを2回解決して、同じエラーを2回出さないように
+    private final Map<TypeElement, Optional<TypeMirror>> viewCache = new HashMap<>();
+    // レジストリはViewが出揃ってから書く
+    private final List<ViewRegistryWriter.Entry> registryEntries = new ArrayList<>();
+    private boolean registryWritten;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        typeUtils = processingEnv.getTypeUtils();
+        elementUtils = processingEnv.getElementUtils();
+        messager = processingEnv.getMessager();
+        iView = erasure(IView.class);
+        iViewModel = erasure(IViewModel.class);
+        componentHolder = erasure(ComponentHolder.class);
+        recyclable = erasure(Recyclable.class);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        // インクリメンタルの種類はMETA-INF/gradle/incremental.annotation.processorsで宣言する。
+        // このリポジトリのGradle 4.8ではdynamicが使えないので、レジストリを作らない時も含めてaggregatingにしている
+        return Collections.singleton(REGISTRY_OPTION);
+    }
+
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        final Types typeUtils = processingEnv.getTypeUtils();
-        final Messager messager = processingEnv.getMessager();
-        final Set<? extends Element> elements = roundEnv.getElementsAnnotatedWith(View.class);
-        for (Element element : elements) {
-            final TypeElement clazz = (TypeElement) element;
-            final TypeMirror iView = findInterface(clazz, IView.class);
-            if (iView == null) {
+        if (roundEnv.processingOver()) {
+            return true;
+        }
+        viewModelCache.clear();
+        viewCache.clear();
+        final Set<? extends Element> views = roundEnv.getElementsAnnotatedWith(View.class);
+        // エラーがあっても止めずに、全部のViewを見てからまとめて報告する
+        for (Element element : views) {
+            processView((TypeElement) element);
+        }
+        // 新しいViewが出てこなくなったラウンドで書く。最後のラウンドで書くと生成物が処理されないため
+        if (views.isEmpty() && !registryWritten && !registryEntries.isEmpty()) {
+            registryWritten = true;
+            writeRegistry();
+        }
+        processBindings(roundEnv);
+        return true;
+    }
+
+    private void processView(TypeElement clazz) {
+        final TypeMirror viewModel = findViewModel(clazz);
+        if (viewModel == null) {
+            return;
+        }
+        final DeclaredType viewModelType = findViewModelType(viewModel);
+        if (viewModelType == null) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    viewModel + " should extend " + IViewModel.class.getCanonicalName() + "<Model>.", clazz);
+            return;
+        }
+        final TypeMirror model = viewModelType.getTypeArguments().get(0);
+        if (model.getKind() != TypeKind.DECLARED) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    viewModel + "'s model should be a class or interface.", clazz);
+            return;
+        }
+
+        final boolean viewIsComponent = !typeUtils.isAssignable(clazz.asType(), componentHolder);
+        final View annotation = clazz.getAnnotation(View.class);
+        if (annotation.disposeOnHidden() && !annotation.lazy()) {
+            messager.printMessage(Diagnostic.Kind.WARNING,
+                    "disposeOnHidden is ignored unless lazy is true.", clazz);
+        }
+        if (0 < annotation.poolSize()) {
+            if (annotation.lazy()) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "poolSize cannot be used with lazy.", clazz);
+                return;
+            }
+            if (!typeUtils.isAssignable(clazz.asType(), recyclable)) {
                 messager.printMessage(Diagnostic.Kind.ERROR,
-                        clazz.getSimpleName() + " should implement " + View.class.getCanonicalName() + ".");
-                return true;
+                        clazz.getSimpleName() + " should implement " + Recyclable.class.getCanonicalName() + " to be pooled.",
+                        clazz);
+                return;
             }
+        }
+        final ViewFactoryWriter writer = new ViewFactoryWriter(
+                annotation.factoryName(),
+                clazz,
+                viewModel,
+                model,
+                elementUtils.getPackageOf(typeUtils.asElement(model)).getQualifiedName().toString(),
+                viewIsComponent ? "" : ".getComponent()",
+                annotation.lazy(),
+                annotation.disposeOnHidden(),
+                annotation.poolSize());
+        try {
+            writer.write(processingEnv.getFiler());
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, e.toString(), clazz);
+            return;
+        }
+        registryEntries.add(new ViewRegistryWriter.Entry(
+                ClassName.get(clazz),
+                ClassName.get(writer.getPackageName(), writer.getFactoryName()),
+                TypeName.get(model)));
+    }
 
-            List<? extends TypeMirror> typeParameters = getTypeParameters(iView);
-            if (typeParameters == null) {
-                messager.printMessage(Diagnostic.Kind.ERROR,
-                        clazz.getSimpleName() + " should have type parameter.");
-                return true;
+    private void writeRegistry() {
+        final String registryName = processingEnv.getOptions().get(REGISTRY_OPTION);
+        if (registryName == null || registryName.isEmpty()) {
+            return;
+        }
+        final List<Element> originatingElements = new ArrayList<>();
+        for (ViewRegistryWriter.Entry entry : registryEntries) {
+            final TypeElement view = elementUtils.getTypeElement(entry.view.toString());
+            if (view != null) {
+                originatingElements.add(view);
             }
-            final TypeMirror viewModel = typeParameters.get(0);
-            final List<? extends TypeMirror> viewModelParent = typeUtils.directSupertypes(viewModel);
-            typeParameters = getTypeParameters(viewModelParent.get(0));
-            if (typeParameters == null) {
-                messager.printMessage(Diagnostic.Kind.ERROR, "IViewModel's type parameter is not found.");
-                return true;
+        }
+        try {
+            new ViewRegistryWriter(registryName, registryEntries, originatingElements).write(processingEnv.getFiler());
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, e.toString());
+        }
+    }
+
+    private TypeMirror findViewModel(TypeElement clazz) {
+        return viewCache.computeIfAbsent(clazz, key -> Optional.ofNullable(resolveViewModel(key))).orElse(null);
+    }
+
+    // IView<VM>のVM。継承したインターフェースも辿る。見つからなければエラーを出してnull
+    private TypeMirror resolveViewModel(TypeElement clazz) {
+        final DeclaredType view = findSupertype(clazz.asType(), iView);
+        if (view == null || view.getTypeArguments().isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    clazz.getSimpleName() + " should implement " + IView.class.getCanonicalName() + "<ViewModel>.",
+                    clazz);
+            return null;
+        }
+        final TypeMirror viewModel = view.getTypeArguments().get(0);
+        if (viewModel.getKind() != TypeKind.DECLARED) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    clazz.getSimpleName() + "'s view model should be a class.", clazz);
+            return null;
+        }
+        return viewModel;
+    }
+
+    private DeclaredType findViewModelType(TypeMirror viewModel) {
+        final TypeElement element = (TypeElement) typeUtils.asElement(viewModel);
+        if (viewModelCache.containsKey(element)) {
+            return viewModelCache.get(element);
+        }
+        DeclaredType viewModelType = findSupertype(viewModel, iViewModel);
+        if (viewModelType != null && viewModelType.getTypeArguments().isEmpty()) {
+            viewModelType = null;
+        }
+        viewModelCache.put(element, viewModelType);
+        return viewModelType;
+    }
+
+    // erasureがtargetと同じ型を、typeとその全ての上位型から探す。型引数は置き換え済みのものが返る
+    private DeclaredType findSupertype(TypeMirror type, TypeMirror target) {
+        if (typeUtils.isSameType(typeUtils.erasure(type), target)) {
+            return (DeclaredType) type;
+        }
+        for (TypeMirror supertype : typeUtils.directSupertypes(type)) {
+            final DeclaredType found = findSupertype(supertype, target);
+            if (found != null) {
+                return found;
             }
+        }
+        return null;
+    }
 
-            final boolean viewIsComponent = findInterface(clazz, ComponentHolder.class) == null;
-            final ViewFactoryWriter writer = new ViewFactoryWriter(
-                    clazz.getAnnotation(View.class).factoryName(),
-                    element.asType(),
-                    viewModel,
-                    typeParameters.get(0),
-                    viewIsComponent ? "" : ".getComponent()");
+    private TypeMirror erasure(Class<?> clazz) {
+        return typeUtils.erasure(elementUtils.getTypeElement(clazz.getCanonicalName()).asType());
+    }
+
+    private void processBindings(RoundEnvironment roundEnv) {
+        // Viewごとにまとめる
+        final Map<TypeElement, List<ViewBindingWriter.FieldBinding>> bindings = new LinkedHashMap<>();
+        collectBindings(roundEnv, BindInput.class, ViewBindingWriter.Kind.INPUT, bindings);
+        collectBindings(roundEnv, BindAction.class, ViewBindingWriter.Kind.ACTION, bindings);
+        collectBindings(roundEnv, BindSelected.class, ViewBindingWriter.Kind.SELECTED, bindings);
+
+        for (Map.Entry<TypeElement, List<ViewBindingWriter.FieldBinding>> entry : bindings.entrySet()) {
+            final TypeElement clazz = entry.getKey();
+            final TypeMirror viewModel = findViewModel(clazz);
+            if (viewModel == null) {
+                continue;
+            }
+            boolean valid = true;
+            for (ViewBindingWriter.FieldBinding binding : entry.getValue()) {
+                valid &= validate(clazz, viewModel, binding);
+            }
+            if (!valid) {
+                continue;
+            }
             try {
-                writer.write(processingEnv.getFiler());
+                new ViewBindingWriter(clazz, viewModel,
+                        elementUtils.getPackageOf(clazz).getQualifiedName().toString(),
+                        entry.getValue()).write(processingEnv.getFiler());
             } catch (IOException e) {
-                e.printStackTrace();
+                messager.printMessage(Diagnostic.Kind.ERROR, e.toString(), clazz);
             }
         }
-        return true;
     }
 
-    private static TypeMirror findInterface(TypeElement clazz, Class<?> target) {
-        for (TypeMirror i : clazz.getInterfaces()) {
-            final String className = i.toString().split("<")[0];
-            if (target.getCanonicalName().equals(className)) {
-                return i;
+    private static void collectBindings(RoundEnvironment roundEnv,
+                                        Class<? extends Annotation> annotation,
+                                        ViewBindingWriter.Kind kind,
+                                        Map<TypeElement, List<ViewBindingWriter.FieldBinding>> bindings) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            final String method;
+            switch (kind) {
+                case INPUT:
+                    method = element.getAnnotation(BindInput.class).value();
+                    break;
+                case ACTION:
+                    method = element.getAnnotation(BindAction.class).value();
+                    break;
+                default:
+                    method = element.getAnnotation(BindSelected.class).value();
+                    break;
             }
+            final TypeElement clazz = (TypeElement) element.getEnclosingElement();
+            bindings.computeIfAbsent(clazz, key -> new ArrayList<>())
+                    .add(new ViewBindingWriter.FieldBinding(kind, element.getSimpleName().toString(), method));
         }
-        return null;
     }
 
-    private static List<? extends TypeMirror> getTypeParameters(TypeMirror type) {
-        final DeclaredType declaredType = (DeclaredType) type;
-        return declaredType.getTypeArguments();
+    // フィールドの型とViewModelのメソッドを確かめる。エラーはフィールドに対して出す
+    private boolean validate(TypeElement clazz, TypeMirror viewModel, ViewBindingWriter.FieldBinding binding) {
+        final VariableElement field = ElementFilter.fieldsIn(clazz.getEnclosedElements()).stream()
+                .filter(f -> f.getSimpleName().contentEquals(binding.field))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.STATIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    binding.field + " should be a non-private instance field.", field);
+            return false;
+        }
+
+        final Class<?> componentType = binding.kind == ViewBindingWriter.Kind.INPUT
+                ? JTextComponent.class
+                : AbstractButton.class;
+        final TypeElement component = elementUtils.getTypeElement(componentType.getCanonicalName());
+        if (!typeUtils.isAssignable(field.asType(), component.asType())) {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    binding.field + " should be " + componentType.getCanonicalName() + ".", field);
+            return false;
+        }
+
+        final TypeMirror parameter;
+        switch (binding.kind) {
+            case INPUT:
+                parameter = elementUtils.getTypeElement(String.class.getCanonicalName()).asType();
+                break;
+            case SELECTED:
+                parameter = typeUtils.getPrimitiveType(TypeKind.BOOLEAN);
+                break;
+            default:
+                parameter = null;
+                break;
+        }
+        final TypeElement viewModelElement = (TypeElement) typeUtils.asElement(viewModel);
+        for (ExecutableElement method : ElementFilter.methodsIn(elementUtils.getAllMembers(viewModelElement))) {
+            if (!method.getSimpleName().contentEquals(binding.method)
+                    || method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            final List<? extends VariableElement> parameters = method.getParameters();
+            if (parameter == null
+                    ? parameters.isEmpty()
+                    : parameters.size() == 1 && typeUtils.isAssignable(parameter, parameters.get(0).asType())) {
+                return true;
+            }
+        }
+        messager.printMessage(Diagnostic.Kind.ERROR,
+                viewModelElement.getSimpleName() + " should have " + binding.method
+                        + "(" + (parameter == null ? "" : parameter) + ").",
+                field);
+        return false;
     }
 }
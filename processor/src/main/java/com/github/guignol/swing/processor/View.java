@@ -9,4 +9,13 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 public @interface View {
     String factoryName() default "";
+
+    // 最初に表示されるまでViewとViewModelを作らない
+    boolean lazy() default false;
+
+    // lazyの時、非表示になったらViewとViewModelを捨てる。次に表示された時に作り直す
+    boolean disposeOnHidden() default false;
+
+    // 1以上なら、Recyclableを実装したViewをこの数まで使い回す。生成されたreleaseで返すこと
+    int poolSize() default 0;
 }
@@ -0,0 +1,203 @@
+package com.github.guignol.swing.processor;
+
+import com.squareup.javapoet.*;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.Document;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * BindInput/BindAction/BindSelectedを付けたフィールドから、リスナーを直接登録するクラスを生成する
+ * <p>
+ * 生成されるクラス自身が各リスナーを1つずつ実装し、イベントの発生元との比較で呼ぶメソッドを決める。
+ * フィールドごとにラムダやObservableを作らないので、大きなフォームでも結びつけのコストが小さい。
+ */
+class ViewBindingWriter {
+
+    enum Kind {
+        INPUT,
+        ACTION,
+        SELECTED
+    }
+
+    static class FieldBinding {
+        final Kind kind;
+        final String field;
+        final String method;
+
+        FieldBinding(Kind kind, String field, String method) {
+            this.kind = kind;
+            this.field = field;
+            this.method = method;
+        }
+
+        String document() {
+            return field + "Document";
+        }
+
+        String selected() {
+            return field + "Selected";
+        }
+    }
+
+    private static final ClassName DISPOSABLE = ClassName.get("io.reactivex.disposables", "Disposable");
+
+    private final TypeElement view;
+    private final TypeMirror viewModel;
+    private final String packageName;
+    private final List<FieldBinding> bindings;
+
+    ViewBindingWriter(TypeElement view, TypeMirror viewModel, String packageName, List<FieldBinding> bindings) {
+        this.view = view;
+        this.viewModel = viewModel;
+        this.packageName = packageName;
+        this.bindings = bindings;
+    }
+
+    // 入れ子のViewはOuter_InnerBindingのように外側のクラス名を繋げる
+    static String getBindingName(TypeElement view) {
+        return String.join("_", ClassName.get(view).simpleNames()) + "Binding";
+    }
+
+    void write(Filer filer) throws IOException {
+        final String bindingName = getBindingName(view);
+        final ClassName bindingType = ClassName.get(packageName, bindingName);
+        final TypeSpec.Builder typeSpecBuilder = TypeSpec.classBuilder(bindingName)
+                .addJavadoc("Automatically generated file. DO NOT MODIFY\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(view)
+                .addSuperinterface(DISPOSABLE)
+                .addField(TypeName.get(view.asType()), "view", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(TypeName.get(viewModel), "viewModel", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(TypeName.BOOLEAN, "disposed", Modifier.PRIVATE);
+
+        final MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(TypeName.get(view.asType()), "view")
+                .addParameter(TypeName.get(viewModel), "viewModel")
+                .addStatement("this.view = view")
+                .addStatement("this.viewModel = viewModel");
+        final MethodSpec.Builder bind = MethodSpec.methodBuilder("bind")
+                .addJavadoc("EDTから呼ぶこと\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(bindingType)
+                .addParameter(TypeName.get(view.asType()), "view")
+                .addParameter(TypeName.get(viewModel), "viewModel")
+                .addStatement("final $T binding = new $T(view, viewModel)", bindingType, bindingType);
+        final CodeBlock.Builder initialValues = CodeBlock.builder();
+        final MethodSpec.Builder dispose = MethodSpec.methodBuilder("dispose")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .beginControlFlow("if (disposed)")
+                .addStatement("return")
+                .endControlFlow()
+                .addStatement("disposed = true");
+        final MethodSpec.Builder onDocumentUpdated = MethodSpec.methodBuilder("onDocumentUpdated")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(Document.class, "document");
+        final MethodSpec.Builder actionPerformed = MethodSpec.methodBuilder("actionPerformed")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ActionEvent.class, "event")
+                .addStatement("final Object source = event.getSource()");
+        final MethodSpec.Builder stateChanged = MethodSpec.methodBuilder("stateChanged")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(ChangeEvent.class, "event")
+                .addStatement("final Object source = event.getSource()");
+
+        boolean hasInput = false;
+        boolean hasAction = false;
+        boolean hasSelected = false;
+        for (FieldBinding binding : bindings) {
+            switch (binding.kind) {
+                case INPUT:
+                    hasInput = true;
+                    // setDocumentで差し替えられても外せるように、登録したDocumentを持っておく
+                    typeSpecBuilder.addField(Document.class, binding.document(), Modifier.PRIVATE, Modifier.FINAL);
+                    constructor.addStatement("this.$L = view.$L.getDocument()", binding.document(), binding.field);
+                    bind.addStatement("binding.$L.addDocumentListener(binding)", binding.document());
+                    initialValues.addStatement("viewModel.$L(view.$L.getText())", binding.method, binding.field);
+                    dispose.addStatement("$L.removeDocumentListener(this)", binding.document());
+                    onDocumentUpdated.beginControlFlow("if (document == $L)", binding.document())
+                            .addStatement("viewModel.$L(view.$L.getText())", binding.method, binding.field)
+                            .addStatement("return")
+                            .endControlFlow();
+                    break;
+                case ACTION:
+                    hasAction = true;
+                    bind.addStatement("view.$L.addActionListener(binding)", binding.field);
+                    dispose.addStatement("view.$L.removeActionListener(this)", binding.field);
+                    actionPerformed.beginControlFlow("if (source == view.$L)", binding.field)
+                            .addStatement("viewModel.$L()", binding.method)
+                            .addStatement("return")
+                            .endControlFlow();
+                    break;
+                case SELECTED:
+                    hasSelected = true;
+                    // ChangeListenerは押下やロールオーバーでも呼ばれるので、選択状態が変わった時だけ流す
+                    typeSpecBuilder.addField(TypeName.BOOLEAN, binding.selected(), Modifier.PRIVATE);
+                    bind.addStatement("view.$L.addChangeListener(binding)", binding.field);
+                    initialValues.addStatement("binding.$L = view.$L.isSelected()", binding.selected(), binding.field)
+                            .addStatement("viewModel.$L(binding.$L)", binding.method, binding.selected());
+                    dispose.addStatement("view.$L.removeChangeListener(this)", binding.field);
+                    stateChanged.beginControlFlow("if (source == view.$L)", binding.field)
+                            .addStatement("final boolean selected = view.$L.isSelected()", binding.field)
+                            .beginControlFlow("if (selected != $L)", binding.selected())
+                            .addStatement("$L = selected", binding.selected())
+                            .addStatement("viewModel.$L(selected)", binding.method)
+                            .endControlFlow()
+                            .addStatement("return")
+                            .endControlFlow();
+                    break;
+            }
+        }
+
+        bind.addComment("初期値")
+                .addCode(initialValues.build())
+                .addStatement("return binding");
+        typeSpecBuilder.addMethod(constructor.build())
+                .addMethod(bind.build())
+                .addMethod(dispose.build())
+                .addMethod(MethodSpec.methodBuilder("isDisposed")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(TypeName.BOOLEAN)
+                        .addStatement("return disposed")
+                        .build());
+        if (hasInput) {
+            typeSpecBuilder.addSuperinterface(DocumentListener.class);
+            for (String name : new String[]{"insertUpdate", "removeUpdate", "changedUpdate"}) {
+                typeSpecBuilder.addMethod(MethodSpec.methodBuilder(name)
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(DocumentEvent.class, "event")
+                        .addStatement("onDocumentUpdated(event.getDocument())")
+                        .build());
+            }
+            typeSpecBuilder.addMethod(onDocumentUpdated.build());
+        }
+        if (hasAction) {
+            typeSpecBuilder.addSuperinterface(ActionListener.class)
+                    .addMethod(actionPerformed.build());
+        }
+        if (hasSelected) {
+            typeSpecBuilder.addSuperinterface(ChangeListener.class)
+                    .addMethod(stateChanged.build());
+        }
+
+        JavaFile.builder(packageName, typeSpecBuilder.build())
+                .build()
+                .writeTo(filer);
+    }
+}
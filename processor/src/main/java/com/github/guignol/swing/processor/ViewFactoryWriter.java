@@ -4,66 +4,109 @@ import com.squareup.javapoet.*;
 
 import javax.annotation.processing.Filer;
 import javax.lang.model.element.Modifier;
-import javax.lang.model.type.DeclaredType;
+import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeMirror;
 import java.io.IOException;
 
 class ViewFactoryWriter {
+    private static final ClassName LAZY_VIEW = ClassName.get("com.github.guignol.swing.binding", "LazyView");
+    private static final ClassName VIEW_POOL = ClassName.get("com.github.guignol.swing.binding", "ViewPool");
+
     private final String factoryName;
-    private final TypeMirror view;
+    private final TypeElement view;
     private final TypeMirror viewModel;
     private final TypeMirror model;
+    private final String packageName;
     private final String getComponent;
+    private final boolean lazy;
+    private final boolean disposeOnHidden;
+    private final int poolSize;
 
     ViewFactoryWriter(String factoryName,
-                      TypeMirror view,
+                      TypeElement view,
                       TypeMirror viewModel,
                       TypeMirror model,
-                      String getComponent) {
+                      String packageName,
+                      String getComponent,
+                      boolean lazy,
+                      boolean disposeOnHidden,
+                      int poolSize) {
         if (factoryName.isEmpty()) {
-            this.factoryName = getSimpleName(view) + "Factory";
+            // ネストしたViewは、Bindingと同じく外側のクラス名を繋げて名前が重ならないようにする
+            this.factoryName = String.join("_", ClassName.get(view).simpleNames()) + "Factory";
         } else {
             this.factoryName = factoryName;
         }
         this.view = view;
         this.viewModel = viewModel;
         this.model = model;
+        this.packageName = packageName;
         this.getComponent = getComponent;
+        this.lazy = lazy;
+        this.disposeOnHidden = disposeOnHidden;
+        this.poolSize = poolSize;
+    }
+
+    String getFactoryName() {
+        return factoryName;
+    }
+
+    String getPackageName() {
+        return packageName;
     }
 
     void write(Filer filer) throws IOException {
         TypeSpec.Builder typeSpecBuilder = TypeSpec.classBuilder(factoryName)
                 .addJavadoc("Automatically generated file. DO NOT MODIFY\n")
-                .addModifiers(Modifier.PUBLIC, Modifier.FINAL);
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addOriginatingElement(view);
 
         final String parameterName = "model";
-        final MethodSpec method = MethodSpec.methodBuilder("create")
+        final MethodSpec.Builder method = MethodSpec.methodBuilder("create")
                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
                 .returns(java.awt.Component.class)
-                .addParameter(ParameterSpec.builder(TypeName.get(this.model), parameterName).build())
-                .addComment("ViewModel to Model")
-                .addStatement("final $T viewModel = new $T($L)", viewModel, viewModel, parameterName)
-                .addComment("View to ViewModel")
-                .addStatement("final $T view = new $T()", view, view)
-                .addStatement("view.bind(viewModel)")
-                .addStatement("return view" + getComponent)
-                .build();
-        typeSpecBuilder.addMethod(method);
+                .addParameter(ParameterSpec.builder(TypeName.get(this.model), parameterName).build());
+        if (lazy) {
+            // 最初に表示された時に作る
+            method.addCode("return $T.create(() -> {\n$>", LAZY_VIEW)
+                    .addComment("ViewModel to Model")
+                    .addStatement("final $T viewModel = new $T($L)", viewModel, viewModel, parameterName)
+                    .addComment("View to ViewModel")
+                    .addStatement("final $T view = new $T()", view, view)
+                    .addStatement("view.bind(viewModel)")
+                    .addStatement("return new $T(view$L, view, viewModel)", LAZY_VIEW.nestedClass("Content"), getComponent)
+                    .addCode("$<}, $L);\n", disposeOnHidden);
+        } else if (0 < poolSize) {
+            // 使い回す
+            final TypeName poolType = ParameterizedTypeName.get(VIEW_POOL, TypeName.get(view.asType()));
+            typeSpecBuilder.addField(FieldSpec.builder(poolType, "POOL", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("new $T<>($L)", VIEW_POOL, poolSize)
+                    .build())
+                    .addMethod(MethodSpec.methodBuilder("release")
+                            .addJavadoc("createで作ったコンポーネントを返す。ViewModelはDisposableならdisposeされる\n")
+                            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                            .returns(TypeName.BOOLEAN)
+                            .addParameter(java.awt.Component.class, "component")
+                            .addStatement("return POOL.release(component)")
+                            .build());
+            method.addComment("ViewModel to Model")
+                    .addStatement("final $T viewModel = new $T($L)", viewModel, viewModel, parameterName)
+                    .addComment("View to ViewModel")
+                    .addStatement("final $T view = POOL.acquire($T::new)", view, view)
+                    .addStatement("view.bind(viewModel)")
+                    .addStatement("return POOL.attach(view, viewModel)");
+        } else {
+            method.addComment("ViewModel to Model")
+                    .addStatement("final $T viewModel = new $T($L)", viewModel, viewModel, parameterName)
+                    .addComment("View to ViewModel")
+                    .addStatement("final $T view = new $T()", view, view)
+                    .addStatement("view.bind(viewModel)")
+                    .addStatement("return view" + getComponent);
+        }
+        typeSpecBuilder.addMethod(method.build());
 
-        JavaFile.builder(getPackageName(this.model), typeSpecBuilder.build())
+        JavaFile.builder(packageName, typeSpecBuilder.build())
                 .build()
                 .writeTo(filer);
     }
-
-    private static String getPackageName(TypeMirror type) {
-        // TODO
-        final String fullyQualified = type.toString();
-        final int lastDot = fullyQualified.lastIndexOf(".");
-        return fullyQualified.substring(0, lastDot);
-    }
-
-    private static String getSimpleName(TypeMirror type) {
-        DeclaredType declaredType = (DeclaredType) type;
-        return declaredType.asElement().getSimpleName().toString();
-    }
 }
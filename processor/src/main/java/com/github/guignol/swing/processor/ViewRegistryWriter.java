@@ -0,0 +1,93 @@
+package com.github.guignol.swing.processor;
+
+import com.squareup.javapoet.*;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import java.awt.Component;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 生成した全てのファクトリーを、Viewのクラスから引けるようにまとめたクラスを生成する
+ */
+class ViewRegistryWriter {
+
+    static class Entry {
+        final ClassName view;
+        final ClassName factory;
+        final TypeName model;
+
+        Entry(ClassName view, ClassName factory, TypeName model) {
+            this.view = view;
+            this.factory = factory;
+            this.model = model;
+        }
+    }
+
+    private final ClassName registryName;
+    private final List<Entry> entries;
+    private final List<Element> originatingElements;
+
+    ViewRegistryWriter(String registryName, List<Entry> entries, List<Element> originatingElements) {
+        this.registryName = ClassName.bestGuess(registryName);
+        this.entries = entries;
+        this.originatingElements = originatingElements;
+    }
+
+    void write(Filer filer) throws IOException {
+        final TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
+        final TypeName factoryType = ParameterizedTypeName.get(
+                ClassName.get(Function.class), TypeName.OBJECT, ClassName.get(Component.class));
+        final TypeName mapType = ParameterizedTypeName.get(
+                ClassName.get(Map.class), classType, factoryType);
+
+        final MethodSpec.Builder factories = MethodSpec.methodBuilder("factories")
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(mapType)
+                .addStatement("final $T factories = new $T<>()", mapType, HashMap.class);
+        for (Entry entry : entries) {
+            factories.addStatement("factories.put($T.class, model -> $T.create(($T) model))",
+                    entry.view, entry.factory, entry.model);
+        }
+        factories.addStatement("return $T.unmodifiableMap(factories)", Collections.class);
+
+        final TypeSpec.Builder typeSpecBuilder = TypeSpec.classBuilder(registryName)
+                .addJavadoc("Automatically generated file. DO NOT MODIFY\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(mapType, "FACTORIES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("factories()")
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .build())
+                .addMethod(factories.build())
+                .addMethod(MethodSpec.methodBuilder("getViewTypes")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(ParameterizedTypeName.get(ClassName.get(Set.class), classType))
+                        .addStatement("return FACTORIES.keySet()")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("create")
+                        .addJavadoc("viewTypeのファクトリーでcreateする\n")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(Component.class)
+                        .addParameter(classType, "viewType")
+                        .addParameter(Object.class, "model")
+                        .addStatement("final $T factory = FACTORIES.get(viewType)", factoryType)
+                        .beginControlFlow("if (factory == null)")
+                        .addStatement("throw new $T(viewType + \" is not a @View.\")", IllegalArgumentException.class)
+                        .endControlFlow()
+                        .addStatement("return factory.apply(model)")
+                        .build());
+        for (Element element : originatingElements) {
+            typeSpecBuilder.addOriginatingElement(element);
+        }
+
+        JavaFile.builder(registryName.packageName(), typeSpecBuilder.build())
+                .build()
+                .writeTo(filer);
+    }
+}